@@ -0,0 +1,71 @@
+package com.example.clearsolutionspracticalassigment.benchmark;
+
+import com.example.clearsolutionspracticalassigment.controller.payload.CreateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+import com.example.clearsolutionspracticalassigment.entity.User;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// fixtures shaped like typical requests, fully filled so every field gets mapped, validated and written
+final class BenchmarkUsers {
+
+    private BenchmarkUsers() {
+    }
+
+    static User user(int number) {
+        return User.builder()
+                .id((long) number)
+                .uuid(UUID.randomUUID())
+                .email("john.dou" + number + "@gmail.com")
+                .firstName("John")
+                .lastName("Dou")
+                .birthDate(LocalDate.of(1990, 7, 15).plusDays(number % 3650))
+                .address("221B Baker Street, London")
+                .phoneNumber("+380991234567")
+                .build();
+    }
+
+    static UserDTO userDTO(int number) {
+        User user = user(number);
+
+        return UserDTO.builder()
+                .uuid(user.getUuid())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .birthDate(user.getBirthDate())
+                .address(user.getAddress())
+                .phoneNumber(user.getPhoneNumber())
+                .build();
+    }
+
+    static CreateUserRequestPayload validCreationPayload() {
+        return CreateUserRequestPayload.builder()
+                .email("john.dou@gmail.com")
+                .firstName("John")
+                .lastName("Dou")
+                .birthDate(LocalDate.of(1990, 7, 15))
+                .address("221B Baker Street, London")
+                .phoneNumber("+380991234567")
+                .build();
+    }
+
+    static CreateUserRequestPayload invalidCreationPayload() {
+        return CreateUserRequestPayload.builder()
+                .email("john.dou@gmail")
+                .firstName(" ")
+                .lastName("Dou")
+                .birthDate(LocalDate.now().plusDays(1))
+                .phoneNumber("12")
+                .build();
+    }
+
+    static PatchUserRequestPayload validPatchPayload() {
+        return PatchUserRequestPayload.builder()
+                .email("john.dou@gmail.com")
+                .phoneNumber("+380991234567")
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.clearsolutionspracticalassigment.benchmark;
+
+import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// the mapper is built the same way spring boot builds the one of the message converters
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserJsonBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int usersCount;
+
+    private ObjectWriter usersWriter;
+    private List<UserDTO> users;
+
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        usersWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, UserDTO.class));
+        users = IntStream.range(0, usersCount)
+                .mapToObj(BenchmarkUsers::userDTO)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] writeUsers() throws JsonProcessingException {
+        return usersWriter.writeValueAsBytes(users);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.clearsolutionspracticalassigment.benchmark;
+
+import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+import com.example.clearsolutionspracticalassigment.entity.User;
+import com.example.clearsolutionspracticalassigment.mapper.UserMapper;
+import com.example.clearsolutionspracticalassigment.mapper.UserMapperImpl;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserMapperBenchmark {
+
+    private final UserMapper userMapper = new UserMapperImpl();
+
+    private User user;
+
+    @Setup
+    public void setup() {
+        user = BenchmarkUsers.user(0);
+    }
+
+    @Benchmark
+    public UserDTO mapUserToUserDTO() {
+        return userMapper.mapUserToUserDTO(user);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.clearsolutionspracticalassigment.benchmark;
+
+import com.example.clearsolutionspracticalassigment.config.BinaryFormatsConfig;
+import com.example.clearsolutionspracticalassigment.controller.payload.CreateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/*
+Encoding and decoding of user payloads in each format the controller negotiates,
+with the mappers of the application's converters. Payload sizes are printed once per fork,
+JMH has no per-operation gauge for them
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserPayloadFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"1", "100", "1000"})
+    private int usersCount;
+
+    private ObjectWriter usersWriter;
+    private ObjectReader usersReader;
+    private ObjectReader creationPayloadReader;
+    private List<UserDTO> users;
+    private byte[] encodedUsers;
+    private byte[] encodedCreationPayload;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = objectMapper();
+        CollectionType usersType = objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, UserDTO.class);
+        usersWriter = objectMapper.writerFor(usersType);
+        usersReader = objectMapper.readerFor(usersType);
+        creationPayloadReader = objectMapper.readerFor(CreateUserRequestPayload.class);
+
+        users = IntStream.range(0, usersCount)
+                .mapToObj(BenchmarkUsers::userDTO)
+                .toList();
+        encodedUsers = usersWriter.writeValueAsBytes(users);
+        encodedCreationPayload = objectMapper.writeValueAsBytes(BenchmarkUsers.validCreationPayload());
+
+        System.out.printf(
+                "%n%s payload bytes: %d users = %d, creation payload = %d%n",
+                format, usersCount, encodedUsers.length, encodedCreationPayload.length
+        );
+    }
+
+    @Benchmark
+    public byte[] writeUsers() throws IOException {
+        return usersWriter.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<UserDTO> readUsers() throws IOException {
+        return usersReader.readValue(encodedUsers);
+    }
+
+    @Benchmark
+    public CreateUserRequestPayload readCreationPayload() throws IOException {
+        return creationPayloadReader.readValue(encodedCreationPayload);
+    }
+
+    private ObjectMapper objectMapper() {
+        BinaryFormatsConfig binaryFormatsConfig = new BinaryFormatsConfig();
+
+        return switch (format) {
+            case "json" -> bootObjectMapperBuilder().build();
+            case "smile" -> binaryFormatsConfig.smileHttpMessageConverter(bootObjectMapperBuilder()).getObjectMapper();
+            case "cbor" -> binaryFormatsConfig.cborHttpMessageConverter(bootObjectMapperBuilder()).getObjectMapper();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+    }
+
+    // what Boot's auto-configured builder adds to the defaults, so dates are written as in the application
+    private static Jackson2ObjectMapperBuilder bootObjectMapperBuilder() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.clearsolutionspracticalassigment.benchmark;
+
+import com.example.clearsolutionspracticalassigment.controller.payload.CreateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.controller.validation.EmailValidator;
+import com.example.clearsolutionspracticalassigment.controller.validation.PhoneNumberValidator;
+import com.example.clearsolutionspracticalassigment.controller.validation.StrictUuidEditor;
+import com.example.clearsolutionspracticalassigment.controller.validation.ValidationPatterns;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/*
+Whole payload validation next to the single field checks it runs:
+the former regexes and @UUID against the hand-written validators and editor replacing them
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserValidationBenchmark {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(ValidationPatterns.EMAIL_PATTERN);
+    private static final Pattern PHONE_NUMBER_PATTERN = Pattern.compile(ValidationPatterns.PHONE_NUMBER_PATTERN);
+
+    @Param({"john.dou@gmail.com", "john.dou.with-a-rather-long.local-part@mail.example-company.co"})
+    private String email;
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private CreateUserRequestPayload validCreationPayload;
+    private CreateUserRequestPayload invalidCreationPayload;
+    private PatchUserRequestPayload validPatchPayload;
+    private String rawUuid;
+
+    private final EmailValidator emailValidator = new EmailValidator();
+    private final PhoneNumberValidator phoneNumberValidator = new PhoneNumberValidator();
+
+    @Setup
+    public void setup() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validCreationPayload = BenchmarkUsers.validCreationPayload();
+        validCreationPayload.setEmail(email);
+        invalidCreationPayload = BenchmarkUsers.invalidCreationPayload();
+        validPatchPayload = BenchmarkUsers.validPatchPayload();
+        validPatchPayload.setEmail(email);
+        rawUuid = UUID.randomUUID().toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateUserRequestPayload>> validateValidCreationPayload() {
+        return validator.validate(validCreationPayload);
+    }
+
+    // builds violations with interpolated messages for every failing constraint
+    @Benchmark
+    public Set<ConstraintViolation<CreateUserRequestPayload>> validateInvalidCreationPayload() {
+        return validator.validate(invalidCreationPayload);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PatchUserRequestPayload>> validateValidPatchPayload() {
+        return validator.validate(validPatchPayload);
+    }
+
+    @Benchmark
+    public boolean matchEmailPattern() {
+        return EMAIL_PATTERN.matcher(email).matches();
+    }
+
+    @Benchmark
+    public boolean validateEmail() {
+        return emailValidator.isValid(email, null);
+    }
+
+    @Benchmark
+    public boolean matchPhoneNumberPattern() {
+        return PHONE_NUMBER_PATTERN.matcher(validCreationPayload.getPhoneNumber()).matches();
+    }
+
+    @Benchmark
+    public boolean validatePhoneNumber() {
+        return phoneNumberValidator.isValid(validCreationPayload.getPhoneNumber(), null);
+    }
+
+    // the path variable route before StrictUuidEditor: a @UUID check, then a second parse
+    @Benchmark
+    public UUID validateAndParseUuid() {
+        validator.validateValue(FormerUserIdHolder.class, "userId", rawUuid);
+        return UUID.fromString(rawUuid);
+    }
+
+    @Benchmark
+    public UUID parseUuid() {
+        return StrictUuidEditor.parse(rawUuid);
+    }
+
+    private record FormerUserIdHolder(
+            @org.hibernate.validator.constraints.UUID(allowNil = false)
+            String userId
+    ) {
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.clearsolutionspracticalassigment.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Open workload: requests are due at a fixed rate no matter how fast the service answers,
+the clients only bound how many of them run at once
+*/
+class LoadDriver implements UserOperation.LoadTarget {
+
+    // due requests waiting for a free client, beyond that they're dropped
+    private static final int QUEUED_REQUESTS_PER_CLIENT = 100;
+
+    private final LoadTestOptions options;
+    private final UserSample users;
+    private final HttpClient httpClient;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong createdEmails = new AtomicLong();
+
+    LoadDriver(LoadTestOptions options, UserSample users) {
+        this.options = options;
+        this.users = users;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    Map<UserOperation, OperationStats> run(Map<UserOperation, Integer> mix) throws InterruptedException {
+        UserOperation[] operationsByWeight = operationsByWeight(mix);
+        Map<UserOperation, OperationStats> stats = new EnumMap<>(UserOperation.class);
+        mix.keySet().forEach(operation -> stats.put(operation, new OperationStats()));
+
+        int clients = options.integer("clients");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                clients, clients, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(clients * QUEUED_REQUESTS_PER_CLIENT)
+        );
+
+        long intervalNanos = (long) (1e9 / options.decimal("rate"));
+        long startedAt = System.nanoTime();
+        long measuredFrom = startedAt + options.duration("warmup").toNanos();
+        long finishedAt = measuredFrom + options.duration("duration").toNanos();
+
+        for (long dueAt = startedAt; dueAt < finishedAt; dueAt += intervalNanos) {
+            long waitNanos = dueAt - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+
+            UserOperation operation = operationsByWeight[ThreadLocalRandom.current().nextInt(operationsByWeight.length)];
+            OperationStats operationStats = dueAt >= measuredFrom ? stats.get(operation) : null;
+            long requestDueAt = dueAt;
+            try {
+                executor.execute(() -> execute(operation, requestDueAt, operationStats));
+            } catch (RejectedExecutionException e) {
+                if (operationStats != null) {
+                    operationStats.recordDropped();
+                }
+            }
+        }
+
+        // requests still running after their own timeout are abandoned and counted as unanswered
+        executor.shutdown();
+        if (!executor.awaitTermination(UserOperation.REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        return stats;
+    }
+
+    @Override
+    public URI uri(String path) {
+        return URI.create(options.string("baseUrl") + path);
+    }
+
+    @Override
+    public UserSample users() {
+        return users;
+    }
+
+    @Override
+    public String nextEmail() {
+        return "load-" + runId + "-" + createdEmails.incrementAndGet() + "@example.com";
+    }
+
+    // stats are null for warmup requests
+    private void execute(UserOperation operation, long dueAt, OperationStats stats) {
+        int status;
+        try {
+            HttpResponse<Void> response = httpClient.send(
+                    operation.buildRequest(this),
+                    HttpResponse.BodyHandlers.discarding()
+            );
+            status = response.statusCode();
+            if (operation == UserOperation.CREATE && status == 201) {
+                response.headers()
+                        .firstValue("Location")
+                        .map(location -> location.substring(location.lastIndexOf('/') + 1))
+                        .map(UUID::fromString)
+                        .ifPresent(users::addCreatedUser);
+            }
+        } catch (IOException | IllegalStateException e) {
+            status = OperationStats.NO_RESPONSE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = OperationStats.NO_RESPONSE;
+        }
+
+        if (stats != null) {
+            stats.record(System.nanoTime() - dueAt, status);
+        }
+    }
+
+    private static UserOperation[] operationsByWeight(Map<UserOperation, Integer> mix) {
+        List<UserOperation> operations = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                operations.add(operation);
+            }
+        });
+
+        return operations.toArray(UserOperation[]::new);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.clearsolutionspracticalassigment.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+// prints the per operation table and writes the same numbers as json for comparing runs
+class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<UserOperation, OperationStats> stats;
+    private final double measuredSeconds;
+
+    LoadReport(Map<UserOperation, OperationStats> stats, double measuredSeconds) {
+        this.stats = stats;
+        this.measuredSeconds = measuredSeconds;
+    }
+
+    void print() {
+        System.out.printf(Locale.ROOT, "%n%-8s %10s %10s %8s %8s %9s %9s %9s %9s %9s%n",
+                "op", "requests", "ok/s", "errors", "error%", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        stats.forEach((operation, operationStats) -> {
+            System.out.printf(Locale.ROOT, "%-8s %10d %10.1f %8d %8.2f",
+                    operation.operationName(),
+                    operationStats.requests(),
+                    (operationStats.requests() - operationStats.errors()) / measuredSeconds,
+                    operationStats.errors(),
+                    operationStats.errorRatePercent());
+            for (double percentile : PERCENTILES) {
+                System.out.printf(Locale.ROOT, " %9.2f", operationStats.percentileMillis(percentile));
+            }
+            System.out.printf(Locale.ROOT, " %9.2f   statuses %s%n", operationStats.maxMillis(), operationStats.statuses());
+        });
+    }
+
+    void write(Path reportFile) throws IOException {
+        StringJoiner operations = new StringJoiner(",\n", "{\n  \"measuredSeconds\": "
+                + format(measuredSeconds) + ",\n  \"operations\": {\n", "\n  }\n}\n");
+        stats.forEach((operation, operationStats) -> {
+            StringJoiner percentiles = new StringJoiner(", ", "{", "}");
+            for (double percentile : PERCENTILES) {
+                percentiles.add("\"p" + format(percentile) + "\": " + format(operationStats.percentileMillis(percentile)));
+            }
+            StringJoiner statuses = new StringJoiner(", ", "{", "}");
+            operationStats.statuses().forEach((status, count) -> statuses.add("\"" + status + "\": " + count));
+
+            operations.add("    \"" + operation.operationName() + "\": {"
+                    + "\"requests\": " + operationStats.requests()
+                    + ", \"throughput\": " + format((operationStats.requests() - operationStats.errors()) / measuredSeconds)
+                    + ", \"errors\": " + operationStats.errors()
+                    + ", \"dropped\": " + operationStats.dropped()
+                    + ", \"errorRatePercent\": " + format(operationStats.errorRatePercent())
+                    + ", \"latencyMillis\": " + percentiles
+                    + ", \"maxMillis\": " + format(operationStats.maxMillis())
+                    + ", \"statuses\": " + statuses
+                    + "}");
+        });
+
+        Files.writeString(reportFile, operations.toString());
+    }
+
+    /*
+    A run fails when any operation goes over the allowed error rate or p99 latency,
+    a zero p99 limit disables that check
+    */
+    boolean passes(double maxErrorRatePercent, double maxP99Millis) {
+        return stats.values().stream().allMatch(operationStats ->
+                operationStats.errorRatePercent() <= maxErrorRatePercent
+                        && (maxP99Millis <= 0 || operationStats.percentileMillis(99) <= maxP99Millis));
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
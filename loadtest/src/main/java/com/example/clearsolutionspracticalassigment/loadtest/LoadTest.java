@@ -0,0 +1,64 @@
+package com.example.clearsolutionspracticalassigment.loadtest;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/*
+Usage: java -jar loadtest.jar seed|run [--name=value ...]
+ seed  bulk loads synthetic users straight into the database
+ run   drives the configured mix of calls against a running service and reports per operation
+*/
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !(args[0].equals("seed") || args[0].equals("run"))) {
+            System.err.println("Usage: java -jar loadtest.jar seed|run [--name=value ...]");
+            System.exit(2);
+        }
+        LoadTestOptions options = new LoadTestOptions(Arrays.copyOfRange(args, 1, args.length));
+
+        if (args[0].equals("seed")) {
+            new UserSeeder(options).seed();
+            return;
+        }
+
+        Map<UserOperation, Integer> mix = parseMix(options.string("mix"));
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        double deleteShare = (double) mix.getOrDefault(UserOperation.DELETE, 0) / totalWeight;
+
+        UserSample users = UserSample.load(options, deleteShare);
+        System.out.printf("Running %s at %s req/s with %s clients against %,d sampled users%n",
+                options.string("mix"), options.string("rate"), options.string("clients"), users.size());
+
+        Map<UserOperation, OperationStats> stats = new LoadDriver(options, users).run(mix);
+
+        LoadReport report = new LoadReport(stats, options.duration("duration").toMillis() / 1000.0);
+        report.print();
+        report.write(Path.of(options.string("report")));
+        System.out.println("\nReport written to " + options.string("report"));
+
+        if (!report.passes(options.decimal("maxErrorRate"), options.decimal("maxP99Millis"))) {
+            System.err.println("Load test failed: error rate or p99 latency over the limit");
+            System.exit(1);
+        }
+    }
+
+    // e.g. get:60,list:15,create:10,patch:10,delete:5
+    private static Map<UserOperation, Integer> parseMix(String mix) {
+        Map<UserOperation, Integer> weights = new EnumMap<>(UserOperation.class);
+        for (String entry : mix.split(",")) {
+            String[] operationAndWeight = entry.split(":");
+            int weight = Integer.parseInt(operationAndWeight[1].trim());
+            if (weight > 0) {
+                weights.put(UserOperation.byName(operationAndWeight[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Invalid mix: at least one operation needs a positive weight");
+        }
+
+        return weights;
+    }
+}
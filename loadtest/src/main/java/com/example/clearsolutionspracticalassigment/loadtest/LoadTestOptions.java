@@ -0,0 +1,69 @@
+package com.example.clearsolutionspracticalassigment.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// --name=value arguments, falling back to the defaults listed in the README
+class LoadTestOptions {
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("dbUrl", "jdbc:postgresql://localhost:5432/postgres"),
+            Map.entry("dbUser", "postgres"),
+            Map.entry("dbPassword", ""),
+            Map.entry("users", "10000000"),
+            Map.entry("copyChunk", "1000000"),
+            Map.entry("baseUrl", "http://localhost:8080"),
+            Map.entry("rate", "200"),
+            Map.entry("clients", "64"),
+            Map.entry("warmup", "10s"),
+            Map.entry("duration", "60s"),
+            Map.entry("mix", "get:60,list:15,create:10,patch:10,delete:5"),
+            Map.entry("sampleUsers", "100000"),
+            Map.entry("report", "loadtest-report.json"),
+            Map.entry("maxErrorRate", "1"),
+            Map.entry("maxP99Millis", "0")
+    );
+
+    private final Map<String, String> values = new HashMap<>(DEFAULTS);
+
+    LoadTestOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid argument: expected --name=value, got " + arg);
+            }
+
+            String name = arg.substring(2, arg.indexOf('='));
+            if (!DEFAULTS.containsKey(name)) {
+                throw new IllegalArgumentException("Invalid argument: unknown option " + name);
+            }
+            values.put(name, arg.substring(arg.indexOf('=') + 1));
+        }
+    }
+
+    String string(String name) {
+        return values.get(name);
+    }
+
+    int integer(String name) {
+        return Integer.parseInt(values.get(name));
+    }
+
+    long number(String name) {
+        return Long.parseLong(values.get(name).replace("_", ""));
+    }
+
+    double decimal(String name) {
+        return Double.parseDouble(values.get(name));
+    }
+
+    // accepts 90s, 5m or plain seconds
+    Duration duration(String name) {
+        String value = values.get(name);
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+
+        return Duration.ofSeconds(Long.parseLong(value.replace("s", "")));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.clearsolutionspracticalassigment.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Latencies are measured from the moment a request was due, not from when it got sent,
+so a stalled service shows up in the percentiles instead of just lowering the rate
+*/
+class OperationStats {
+
+    // status code used for requests that got no response at all
+    static final int NO_RESPONSE = 0;
+
+    private final Histogram latencyMicros = new ConcurrentHistogram(3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    void record(long latencyNanos, int status) {
+        latencyMicros.recordValue(Math.max(1, latencyNanos / 1000));
+        requests.increment();
+        if (status < 200 || status >= 300) {
+            errors.increment();
+        }
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    // requests the clients couldn't even start, because all of them were busy for too long
+    void recordDropped() {
+        requests.increment();
+        errors.increment();
+        dropped.increment();
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    double errorRatePercent() {
+        long requestsCount = requests();
+        return requestsCount == 0 ? 0 : 100.0 * errors() / requestsCount;
+    }
+
+    double percentileMillis(double percentile) {
+        return latencyMicros.getTotalCount() == 0 ? 0 : latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMillis() {
+        return latencyMicros.getTotalCount() == 0 ? 0 : latencyMicros.getMaxValue() / 1000.0;
+    }
+
+    Map<Integer, Long> statuses() {
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+        return statusCounts;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.clearsolutionspracticalassigment.loadtest;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+Users with the shape of real sign-ups: ages are normally distributed around 38
+and cut to the 18..95 range the service accepts, emails are unique per id
+*/
+final class SyntheticUsers {
+
+    private static final String[] FIRST_NAMES = {
+            "John", "Olena", "Taras", "Maria", "Andrii", "Sofia", "Dmytro", "Anna", "Ivan", "Kateryna",
+            "Oleh", "Iryna", "Petro", "Yulia", "Mykola", "Natalia", "Serhii", "Oksana", "Yurii", "Daria"
+    };
+    private static final String[] LAST_NAMES = {
+            "Dou", "Shevchenko", "Kovalenko", "Bondarenko", "Tkachenko", "Kravchenko", "Oliinyk",
+            "Shevchuk", "Polishchuk", "Lysenko", "Marchenko", "Melnyk", "Savchenko", "Rudenko"
+    };
+    private static final String[] STREETS = {
+            "Khreshchatyk", "Baker", "Main", "Shevchenko", "Franka", "Sadova", "Lesi Ukrainky", "Oak"
+    };
+    private static final String[] CITIES = {"Kyiv", "Lviv", "Odesa", "Kharkiv", "Dnipro", "London", "Warsaw"};
+    private static final String[] EMAIL_DOMAINS = {"gmail.com", "ukr.net", "outlook.com", "example.com"};
+
+    private static final int MEAN_AGE = 38;
+    private static final int AGE_DEVIATION = 14;
+    private static final int MIN_AGE = 18;
+    private static final int MAX_AGE = 95;
+
+    private SyntheticUsers() {
+    }
+
+    // one users row in COPY csv format, without any character that needs quoting
+    static void appendCsvRow(StringBuilder rows, long id, LocalDate today) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String firstName = pick(FIRST_NAMES);
+        String lastName = pick(LAST_NAMES);
+
+        rows.append(id).append(',')
+                .append(UUID.randomUUID()).append(',')
+                .append(firstName.toLowerCase()).append('.').append(lastName.toLowerCase())
+                .append(id).append('@').append(pick(EMAIL_DOMAINS)).append(',')
+                .append(firstName).append(',')
+                .append(lastName).append(',')
+                .append(birthDate(today)).append(',')
+                .append(random.nextInt(1, 300)).append(' ').append(pick(STREETS)).append(" St ")
+                .append(pick(CITIES)).append(',')
+                .append("+380").append(random.nextLong(100_000_000L, 1_000_000_000L))
+                .append('\n');
+    }
+
+    static LocalDate birthDate(LocalDate today) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long age = Math.round(MEAN_AGE + random.nextGaussian() * AGE_DEVIATION);
+        age = Math.max(MIN_AGE, Math.min(MAX_AGE, age));
+
+        // spreads the birthdays over the whole year instead of today's date
+        return today.minusYears(age).minusDays(random.nextInt(1, 365));
+    }
+
+    static String firstName() {
+        return pick(FIRST_NAMES);
+    }
+
+    static String lastName() {
+        return pick(LAST_NAMES);
+    }
+
+    private static String pick(String[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+}
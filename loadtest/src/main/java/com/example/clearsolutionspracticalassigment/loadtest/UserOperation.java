@@ -0,0 +1,109 @@
+package com.example.clearsolutionspracticalassigment.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+
+// the UserController calls the load is mixed from
+enum UserOperation {
+
+    GET("get") {
+        @Override
+        HttpRequest.Builder request(LoadTarget target) {
+            return HttpRequest.newBuilder(target.uri("/v1/user/" + target.users().anyUser()))
+                    .GET();
+        }
+    },
+
+    // a random one year window, with the default page limit
+    LIST("list") {
+        @Override
+        HttpRequest.Builder request(LoadTarget target) {
+            LocalDate birthDateTo = SyntheticUsers.birthDate(LocalDate.now());
+            LocalDate birthDateFrom = birthDateTo.minusYears(1);
+
+            return HttpRequest.newBuilder(target.uri(
+                            "/v1/user?birthDateFrom=" + birthDateFrom + "&birthDateTo=" + birthDateTo
+                    ))
+                    .GET();
+        }
+    },
+
+    CREATE("create") {
+        @Override
+        HttpRequest.Builder request(LoadTarget target) {
+            String body = """
+                    {"email":"%s","firstName":"%s","lastName":"%s","birthDate":"%s","phoneNumber":"+380991234567"}
+                    """.formatted(
+                    target.nextEmail(),
+                    SyntheticUsers.firstName(),
+                    SyntheticUsers.lastName(),
+                    SyntheticUsers.birthDate(LocalDate.now())
+            );
+
+            return HttpRequest.newBuilder(target.uri("/v1/user"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+    },
+
+    PATCH("patch") {
+        @Override
+        HttpRequest.Builder request(LoadTarget target) {
+            String body = "{\"firstName\":\"" + SyntheticUsers.firstName() + "\"}";
+
+            return HttpRequest.newBuilder(target.uri("/v1/user/" + target.users().anyUser()))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(body));
+        }
+    },
+
+    DELETE("delete") {
+        @Override
+        HttpRequest.Builder request(LoadTarget target) {
+            return HttpRequest.newBuilder(target.uri("/v1/user/" + target.users().takeUserToDelete()))
+                    .DELETE();
+        }
+    };
+
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String name;
+
+    UserOperation(String name) {
+        this.name = name;
+    }
+
+    String operationName() {
+        return name;
+    }
+
+    HttpRequest buildRequest(LoadTarget target) {
+        return request(target)
+                .timeout(REQUEST_TIMEOUT)
+                .build();
+    }
+
+    abstract HttpRequest.Builder request(LoadTarget target);
+
+    static UserOperation byName(String name) {
+        for (UserOperation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid mix: unknown operation " + name);
+    }
+
+    // the service and the users the operations run against
+    interface LoadTarget {
+
+        URI uri(String path);
+
+        UserSample users();
+
+        String nextEmail();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.clearsolutionspracticalassigment.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Existing users the reads and patches pick from.
+Deletes take users created during the run first, then a reserved part of the sample
+that reads never touch, so they don't turn into not found errors
+*/
+class UserSample {
+
+    private final List<UUID> sampledUsers;
+    private final int reservedForDeletes;
+    private final AtomicInteger deletedSampledUsers = new AtomicInteger();
+    private final Queue<UUID> createdUsers = new ConcurrentLinkedQueue<>();
+
+    private UserSample(List<UUID> sampledUsers, int reservedForDeletes) {
+        this.sampledUsers = sampledUsers;
+        this.reservedForDeletes = reservedForDeletes;
+    }
+
+    static UserSample load(LoadTestOptions options, double deleteShare) throws SQLException {
+        int sampleSize = options.integer("sampleUsers");
+
+        try (Connection connection = DriverManager.getConnection(
+                options.string("dbUrl"), options.string("dbUser"), options.string("dbPassword")
+        )) {
+            double estimatedUsers = estimateUsersCount(connection);
+            // twice the needed share of pages, limit cuts the surplus
+            double samplePercent = Math.min(100, 100.0 * sampleSize * 2 / Math.max(estimatedUsers, 1));
+
+            List<UUID> sampledUsers = new ArrayList<>(sampleSize);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "select uuid from users tablesample system (" + samplePercent + ") limit ?"
+            )) {
+                statement.setInt(1, sampleSize);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        sampledUsers.add(resultSet.getObject(1, UUID.class));
+                    }
+                }
+            }
+            if (sampledUsers.size() < 2) {
+                throw new IllegalStateException("Not enough users to run against: seed the database first");
+            }
+
+            int reservedForDeletes = Math.min(
+                    (int) Math.ceil(sampledUsers.size() * deleteShare),
+                    sampledUsers.size() - 1
+            );
+            return new UserSample(sampledUsers, reservedForDeletes);
+        }
+    }
+
+    int size() {
+        return sampledUsers.size();
+    }
+
+    UUID anyUser() {
+        return sampledUsers.get(ThreadLocalRandom.current().nextInt(reservedForDeletes, sampledUsers.size()));
+    }
+
+    UUID takeUserToDelete() {
+        UUID createdUser = createdUsers.poll();
+        if (createdUser != null) {
+            return createdUser;
+        }
+
+        int index = deletedSampledUsers.getAndIncrement();
+        if (index >= reservedForDeletes) {
+            throw new IllegalStateException("No users left to delete: raise sampleUsers or the create share");
+        }
+        return sampledUsers.get(index);
+    }
+
+    void addCreatedUser(UUID userId) {
+        createdUsers.add(userId);
+    }
+
+    private static double estimateUsersCount(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "select reltuples from pg_class where relname = 'users'"
+             )) {
+            double reltuples = resultSet.next() ? resultSet.getDouble(1) : -1;
+            if (reltuples > 0) {
+                return reltuples;
+            }
+        }
+
+        // never analyzed yet
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select count(*) from users")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
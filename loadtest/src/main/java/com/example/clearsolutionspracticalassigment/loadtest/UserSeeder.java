@@ -0,0 +1,108 @@
+package com.example.clearsolutionspracticalassigment.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+/*
+Streams generated rows through COPY, every chunk commits on its own.
+Ids continue after the current maximum and the id sequence is moved past them afterwards,
+so the service keeps inserting next to the seeded users
+*/
+class UserSeeder {
+
+    private static final String COPY_SQL = """
+            copy users (id, uuid, email, first_name, last_name, birth_date, address, phone_number)
+            from stdin with (format csv)
+            """;
+    // rows are sent to the server in pieces of this size
+    private static final int COPY_BUFFER_CHARS = 1 << 20;
+
+    private final LoadTestOptions options;
+
+    UserSeeder(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    void seed() throws SQLException {
+        long usersCount = options.number("users");
+        long copyChunk = options.number("copyChunk");
+
+        try (Connection connection = DriverManager.getConnection(
+                options.string("dbUrl"), options.string("dbUser"), options.string("dbPassword")
+        )) {
+            try (Statement statement = connection.createStatement()) {
+                // seeded rows can be regenerated, they don't need to wait for the WAL flush
+                statement.execute("set synchronous_commit = off");
+            }
+
+            long firstId = queryLong(connection, "select coalesce(max(id), 0) + 1 from users");
+            long lastId = firstId + usersCount - 1;
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            LocalDate today = LocalDate.now();
+            long startedAt = System.nanoTime();
+
+            for (long chunkStart = firstId; chunkStart <= lastId; chunkStart += copyChunk) {
+                long chunkEnd = Math.min(chunkStart + copyChunk - 1, lastId);
+                copyChunk(copyManager, chunkStart, chunkEnd, today);
+
+                long seededCount = chunkEnd - firstId + 1;
+                double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+                System.out.printf("Seeded %,d of %,d users (%,.0f rows/s)%n",
+                        seededCount, usersCount, seededCount / elapsedSeconds);
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                // the pooled optimizer treats the sequence value as the upper end of the next id block
+                statement.execute("select setval('user_seq', " + lastId + ")");
+                statement.execute("analyze users");
+            }
+        }
+    }
+
+    private void copyChunk(
+            CopyManager copyManager,
+            long chunkStart,
+            long chunkEnd,
+            LocalDate today
+    ) throws SQLException {
+        CopyIn copyIn = copyManager.copyIn(COPY_SQL);
+        try {
+            StringBuilder rows = new StringBuilder(COPY_BUFFER_CHARS + 512);
+            for (long id = chunkStart; id <= chunkEnd; id++) {
+                SyntheticUsers.appendCsvRow(rows, id, today);
+                if (rows.length() >= COPY_BUFFER_CHARS) {
+                    writeRows(copyIn, rows);
+                }
+            }
+            writeRows(copyIn, rows);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void writeRows(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    private static long queryLong(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.clearsolutionspracticalassigment.admission;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/*
+Concurrency limit that adapts like TCP congestion control: every request that completes
+within the latency threshold raises the limit by 1/limit, about one per round of requests,
+while a slow or failed one cuts it by the backoff ratio. Requests that were slow together
+are one signal, so the limit is cut at most once per threshold period
+*/
+public class AimdConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    // guarded by this
+    private long lastDecreasedAt;
+
+    public AimdConcurrencyLimit(
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            Duration latencyThreshold,
+            double backoffRatio
+    ) {
+        this(initialLimit, minLimit, maxLimit, latencyThreshold, backoffRatio, System::nanoTime);
+    }
+
+    AimdConcurrencyLimit(
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            Duration latencyThreshold,
+            double backoffRatio,
+            LongSupplier nanoClock
+    ) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.nanoClock = nanoClock;
+        this.limit = initialLimit;
+        this.lastDecreasedAt = nanoClock.getAsLong() - latencyThresholdNanos;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int currentInFlight = inFlight.get();
+            if (currentInFlight >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(currentInFlight, currentInFlight + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos, boolean failed) {
+        int releasedInFlight = inFlight.getAndDecrement();
+
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else if (releasedInFlight * 2 >= limit) {
+            // a limit that's far from used says nothing about the capacity behind it
+            increase();
+        }
+    }
+
+    // for requests whose latency isn't a sample of the service time, like long-lived streams
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void increase() {
+        limit = Math.min(maxLimit, limit + 1 / limit);
+    }
+
+    private synchronized void decrease() {
+        long now = nanoClock.getAsLong();
+        if (now - lastDecreasedAt < latencyThresholdNanos) {
+            return;
+        }
+
+        lastDecreasedAt = now;
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+}
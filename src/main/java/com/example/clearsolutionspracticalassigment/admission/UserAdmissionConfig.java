@@ -0,0 +1,77 @@
+package com.example.clearsolutionspracticalassigment.admission;
+
+import com.example.clearsolutionspracticalassigment.controller.UserController;
+import com.example.clearsolutionspracticalassigment.metrics.UserMetrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/*
+Limits start at the initial value and settle wherever latency stays under the threshold,
+the gauges show where. Rejections are counted with the failures of UserControllerAdvice,
+but not logged as client errors
+*/
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "admission.user.enabled", havingValue = "true")
+public class UserAdmissionConfig implements WebMvcConfigurer {
+
+    private static final String LIMIT_METER = "user.admission.limit";
+    private static final String IN_FLIGHT_METER = "user.admission.inflight";
+
+    private final AimdConcurrencyLimit readLimit;
+    private final AimdConcurrencyLimit writeLimit;
+    private final UserMetrics userMetrics;
+    private final ObjectMapper objectMapper;
+
+    public UserAdmissionConfig(
+            MeterRegistry meterRegistry,
+            UserMetrics userMetrics,
+            ObjectMapper objectMapper,
+            @Value("${admission.user.minLimit}") int minLimit,
+            @Value("${admission.user.backoffRatio}") double backoffRatio,
+            @Value("${admission.user.read.initialLimit}") int readInitialLimit,
+            @Value("${admission.user.read.maxLimit}") int readMaxLimit,
+            @Value("${admission.user.read.latencyThreshold}") Duration readLatencyThreshold,
+            @Value("${admission.user.write.initialLimit}") int writeInitialLimit,
+            @Value("${admission.user.write.maxLimit}") int writeMaxLimit,
+            @Value("${admission.user.write.latencyThreshold}") Duration writeLatencyThreshold
+    ) {
+        this.readLimit = new AimdConcurrencyLimit(
+                readInitialLimit, minLimit, readMaxLimit, readLatencyThreshold, backoffRatio
+        );
+        this.writeLimit = new AimdConcurrencyLimit(
+                writeInitialLimit, minLimit, writeMaxLimit, writeLatencyThreshold, backoffRatio
+        );
+        this.userMetrics = userMetrics;
+        this.objectMapper = objectMapper;
+        registerGauges("read", readLimit, meterRegistry);
+        registerGauges("write", writeLimit, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new UserAdmissionInterceptor(
+                        readLimit, writeLimit, userMetrics, objectMapper
+                ))
+                .addPathPatterns("/" + UserController.USER_PATH, "/" + UserController.USER_PATH + "/**");
+    }
+
+    private static void registerGauges(String operation, AimdConcurrencyLimit limit, MeterRegistry meterRegistry) {
+        Gauge.builder(LIMIT_METER, limit, AimdConcurrencyLimit::getLimit)
+                .description("Requests admitted at once, adapted to their latency")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METER, limit, AimdConcurrencyLimit::getInFlight)
+                .description("Admitted requests that haven't completed yet")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.clearsolutionspracticalassigment.admission;
+
+import com.example.clearsolutionspracticalassigment.controller.payload.ApiErrorInfo;
+import com.example.clearsolutionspracticalassigment.metrics.UserMetrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/*
+Admits a request only while its limit has room, reads and writes are limited apart,
+so slow writes can't take the threads of cache-served reads and the other way round.
+Shedding must stay cheap exactly when the node is overloaded: a rejection writes a body
+serialized once, in the shape of UserControllerAdvice's errors, instead of going through
+exception resolution. It's counted by the overload metric only: like any 503,
+it isn't the client's fault, so it's not logged as a client error.
+503 rather than 429: the node sheds load because it's slow, not because of this client,
+so a load balancer may just as well retry on another node
+*/
+public class UserAdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMISSION_ATTRIBUTE = UserAdmissionInterceptor.class.getName() + ".admission";
+    static final String OVERLOADED_TITLE = "Service overloaded exception";
+    private static final String OVERLOADED_MESSAGE = "Service overloaded: retry later";
+    // limits recover within a few round trips once latency is back to normal
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AimdConcurrencyLimit readLimit;
+    private final AimdConcurrencyLimit writeLimit;
+    private final UserMetrics userMetrics;
+    private final byte[] overloadedBody;
+
+    public UserAdmissionInterceptor(
+            AimdConcurrencyLimit readLimit,
+            AimdConcurrencyLimit writeLimit,
+            UserMetrics userMetrics,
+            ObjectMapper objectMapper
+    ) {
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        this.userMetrics = userMetrics;
+        try {
+            this.overloadedBody = objectMapper.writeValueAsBytes(ApiErrorInfo.builder()
+                    .title(OVERLOADED_TITLE)
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .messages(List.of(OVERLOADED_MESSAGE))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean preHandle(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler
+    ) throws IOException {
+        // the async dispatch that completes a stream was admitted with its first one
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        AimdConcurrencyLimit limit = isRead(request) ? readLimit : writeLimit;
+        if (!limit.tryAcquire()) {
+            reject(response);
+            return false;
+        }
+        request.setAttribute(ADMISSION_ATTRIBUTE, new Admission(limit, System.nanoTime()));
+
+        return true;
+    }
+
+    /*
+    The request thread is free once a stream went async, so is its place in the limit.
+    An open event stream waits for changes, not for the database
+    */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Admission admission = removeAdmission(request);
+        if (admission != null) {
+            admission.getLimit().releaseWithoutSample();
+        }
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            Exception exception
+    ) {
+        Admission admission = removeAdmission(request);
+        if (admission == null) {
+            return;
+        }
+
+        // an NDJSON stream takes as long as the range is wide, its latency isn't a service time
+        String contentType = response.getContentType();
+        if (contentType != null && contentType.startsWith(MediaType.APPLICATION_NDJSON_VALUE)) {
+            admission.getLimit().releaseWithoutSample();
+            return;
+        }
+
+        boolean failed = exception != null || response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        admission.getLimit().release(System.nanoTime() - admission.getAdmittedAt(), failed);
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        userMetrics.countOverloaded();
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(overloadedBody.length);
+        response.getOutputStream().write(overloadedBody);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+    }
+
+    private static Admission removeAdmission(HttpServletRequest request) {
+        Admission admission = (Admission) request.getAttribute(ADMISSION_ATTRIBUTE);
+        request.removeAttribute(ADMISSION_ATTRIBUTE);
+
+        return admission;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Admission {
+
+        private final AimdConcurrencyLimit limit;
+        private final long admittedAt;
+    }
+}
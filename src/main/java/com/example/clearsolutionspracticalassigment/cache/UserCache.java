@@ -0,0 +1,17 @@
+package com.example.clearsolutionspracticalassigment.cache;
+
+import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+public interface UserCache {
+
+    Optional<UserDTO> get(UUID userId, Function<UUID, Optional<UserDTO>> userLoader);
+
+    void evict(Collection<UUID> userIds);
+
+    void evictAll();
+}
@@ -0,0 +1,82 @@
+package com.example.clearsolutionspracticalassigment.cache;
+
+import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+import com.example.clearsolutionspracticalassigment.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+@Component
+public class UserCacheImpl implements UserCache {
+
+    // hit ratio, evictions and size are exposed as cache.* meters tagged cache=users
+    private static final String CACHE_NAME = "users";
+
+    // empty optionals are stored only when negative caching is on
+    private final Cache<UUID, Optional<UserDTO>> users;
+    private final boolean negativeCaching;
+
+    public UserCacheImpl(
+            @Value("${cache.user.maximumSize}") long maximumSize,
+            @Value("${cache.user.expireAfterWrite}") Duration expireAfterWrite,
+            @Value("${cache.user.negativeCaching}") boolean negativeCaching,
+            MeterRegistry meterRegistry
+    ) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.negativeCaching = negativeCaching;
+        CaffeineCacheMetrics.monitor(meterRegistry, users, CACHE_NAME);
+    }
+
+    @Override
+    public Optional<UserDTO> get(
+            UUID userId,
+            Function<UUID, Optional<UserDTO>> userLoader
+    ) {
+        Optional<UserDTO> foundUser = users.get(userId, uuid -> {
+            Optional<UserDTO> loadedUser = userLoader.apply(uuid);
+
+            return loadedUser.isPresent() || negativeCaching ? loadedUser : null;
+        });
+
+        return foundUser == null ? Optional.empty() : foundUser;
+    }
+
+    @Override
+    public void evict(Collection<UUID> userIds) {
+        users.invalidateAll(userIds);
+    }
+
+    @Override
+    public void evictAll() {
+        users.invalidateAll();
+    }
+
+    /*
+    Runs after commit, so readers can't bring the old row back in between.
+    A load still running for an evicted key finishes first and is dropped with it,
+    because caffeine serializes loads and invalidations of the same key
+    */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void evictChangedUsers(UserChangedEvent event) {
+        if (event.affectsUnknownUsers()) {
+            evictAll();
+        } else {
+            evict(event.getUserIds());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.clearsolutionspracticalassigment.cache;
+
+import com.example.clearsolutionspracticalassigment.entity.User;
+import com.example.clearsolutionspracticalassigment.event.UserChangesCommittedEvent;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+
+/*
+Listens on its own connection instead of a pooled one,
+because LISTEN keeps the connection busy for the whole lifetime of the node.
+Every received invalidation is passed on as UserChangesCommittedEvent once the caches are evicted
+*/
+@Component
+@ConditionalOnProperty(name = "cache.user.invalidation.enabled", havingValue = "true")
+@Slf4j
+public class UserCacheInvalidationListener implements SmartLifecycle {
+
+    // bounds how long stop() waits for the listening thread
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+
+    private final UserCache userCache;
+    private final SessionFactoryImplementor sessionFactory;
+    private final EntityPersister userPersister;
+    private final String[] userQuerySpaces;
+    private final DataSourceProperties dataSourceProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String channel;
+    private final Duration reconnectDelay;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public UserCacheInvalidationListener(
+            UserCache userCache,
+            EntityManagerFactory entityManagerFactory,
+            DataSourceProperties dataSourceProperties,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${cache.user.invalidation.channel}") String channel,
+            @Value("${cache.user.invalidation.reconnectDelay}") Duration reconnectDelay
+    ) {
+        this.userCache = userCache;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.userPersister = sessionFactory.getMappingMetamodel().getEntityDescriptor(User.class);
+        this.userQuerySpaces = Arrays.stream(userPersister.getQuerySpaces())
+                .map(String.class::cast)
+                .toArray(String[]::new);
+        this.dataSourceProperties = dataSourceProperties;
+        this.eventPublisher = eventPublisher;
+        this.channel = channel;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "user-cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        listenerThread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword()
+            )) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN \"" + channel + "\"");
+                }
+                // invalidations sent while this node wasn't listening are lost
+                userCache.evictAll();
+                evictAllSecondLevelUsers();
+                eventPublisher.publishEvent(new UserChangesCommittedEvent(null));
+                log.info("Listening for user cache invalidations on channel: {}", channel);
+
+                PGConnection notificationsConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = notificationsConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            evict(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Lost user cache invalidation channel, reconnecting: {}", e.getMessage());
+                    awaitReconnect();
+                }
+            }
+        }
+    }
+
+    void evict(String payload) {
+        Collection<UUID> userIds;
+        try {
+            userIds = UserCacheInvalidationPayloads.decode(payload);
+        } catch (IllegalArgumentException e) {
+            // a foreign payload on the channel mustn't leave stale users behind
+            log.warn("Received malformed user cache invalidation: {}", payload);
+            userIds = null;
+        }
+
+        // hibernate and UserCacheImpl have already evicted the writes of this node
+        if (!UserCacheInvalidationPayloads.isLocal(payload)) {
+            if (userIds == null) {
+                userCache.evictAll();
+                evictAllSecondLevelUsers();
+            } else {
+                userCache.evict(userIds);
+                evictSecondLevelUsers(userIds);
+            }
+        }
+        eventPublisher.publishEvent(new UserChangesCommittedEvent(userIds));
+    }
+
+    /*
+    Hibernate only evicts its second-level cache for writes of this node. Users are cached
+    by id, the natural-id cache resolves their uuids to it: a user is cached along with
+    its natural id, one missing there isn't cached on this node. Cached queries over users
+    are invalidated the way hibernate does it for local writes.
+    Does nothing while the second-level cache is off
+    */
+    private void evictSecondLevelUsers(Collection<UUID> userIds) {
+        if (!userPersister.hasNaturalIdCache()) {
+            return;
+        }
+
+        NaturalIdDataAccess naturalIdCache = userPersister.getNaturalIdCacheAccessStrategy();
+        try (Session session = sessionFactory.openSession()) {
+            SharedSessionContractImplementor sessionImplementor = session.unwrap(SharedSessionContractImplementor.class);
+            for (UUID userId : userIds) {
+                Object naturalIdKey = naturalIdCache.generateCacheKey(userId, userPersister, sessionImplementor);
+                Object cachedId = naturalIdCache.get(sessionImplementor, naturalIdKey);
+                naturalIdCache.evict(naturalIdKey);
+                if (cachedId != null) {
+                    sessionFactory.getCache().evictEntityData(User.class, cachedId);
+                }
+            }
+            sessionFactory.getCache().getTimestampsCache().invalidate(userQuerySpaces, sessionImplementor);
+        }
+    }
+
+    // for users that aren't known one by one, calls are no-ops while the second-level cache is off
+    private void evictAllSecondLevelUsers() {
+        Cache secondLevelCache = sessionFactory.getCache();
+        secondLevelCache.evictEntityData(User.class);
+        secondLevelCache.evictNaturalIdData(User.class);
+        secondLevelCache.evictDefaultQueryRegion();
+    }
+
+    private void awaitReconnect() {
+        try {
+            Thread.sleep(reconnectDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
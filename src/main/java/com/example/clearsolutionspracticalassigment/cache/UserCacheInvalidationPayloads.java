@@ -0,0 +1,75 @@
+package com.example.clearsolutionspracticalassigment.cache;
+
+import com.example.clearsolutionspracticalassigment.event.UserChangedEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/*
+NOTIFY payloads must stay below 8000 bytes,
+so changed users are sent as comma separated chunks of uuids.
+Every payload starts with the node that sent it: postgres delivers a node's
+notifications to its own listener too, which has nothing left to evict then
+*/
+final class UserCacheInvalidationPayloads {
+
+    static final String ALL_USERS = "*";
+    // identifies the notifications of this node
+    static final String LOCAL_ORIGIN = UUID.randomUUID().toString();
+
+    // 200 uuids with separators and the origin take about 7450 bytes
+    private static final int USERS_PER_PAYLOAD = 200;
+    private static final String SEPARATOR = ",";
+    private static final String ORIGIN_SEPARATOR = ";";
+
+    private UserCacheInvalidationPayloads() {
+    }
+
+    static List<String> encode(UserChangedEvent event) {
+        return encode(event, LOCAL_ORIGIN);
+    }
+
+    static List<String> encode(UserChangedEvent event, String origin) {
+        String prefix = origin + ORIGIN_SEPARATOR;
+        if (event.affectsUnknownUsers()) {
+            return List.of(prefix + ALL_USERS);
+        }
+
+        List<String> userIds = event.getUserIds()
+                .stream()
+                .map(UUID::toString)
+                .toList();
+        List<String> payloads = new ArrayList<>();
+        for (int chunkStart = 0; chunkStart < userIds.size(); chunkStart += USERS_PER_PAYLOAD) {
+            payloads.add(prefix + String.join(SEPARATOR, userIds.subList(
+                    chunkStart, Math.min(chunkStart + USERS_PER_PAYLOAD, userIds.size())
+            )));
+        }
+
+        return payloads;
+    }
+
+    static boolean isLocal(String payload) {
+        return payload.startsWith(LOCAL_ORIGIN + ORIGIN_SEPARATOR);
+    }
+
+    // null stands for all users, like in UserChangedEvent
+    static Collection<UUID> decode(String payload) {
+        int originEnd = payload.indexOf(ORIGIN_SEPARATOR);
+        if (originEnd < 0) {
+            throw new IllegalArgumentException("Missing origin of user cache invalidation");
+        }
+
+        String userIds = payload.substring(originEnd + ORIGIN_SEPARATOR.length());
+        if (ALL_USERS.equals(userIds)) {
+            return null;
+        }
+
+        return Arrays.stream(userIds.split(SEPARATOR))
+                .map(UUID::fromString)
+                .toList();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.clearsolutionspracticalassigment.cache;
+
+import com.example.clearsolutionspracticalassigment.event.UserChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/*
+Postgres delivers NOTIFY only when the sending transaction commits,
+so other nodes never evict for a write that was rolled back
+*/
+@Component
+@ConditionalOnProperty(name = "cache.user.invalidation.enabled", havingValue = "true")
+@Slf4j
+public class UserCacheInvalidationPublisher {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+
+    public UserCacheInvalidationPublisher(
+            JdbcTemplate jdbcTemplate,
+            @Value("${cache.user.invalidation.channel}") String channel
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.channel = channel;
+    }
+
+    // runs on the connection of the write transaction, outside of one it notifies right away
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void notifyChangedUsers(UserChangedEvent event) {
+        if (!event.affectsUnknownUsers() && event.getUserIds().isEmpty()) {
+            return;
+        }
+
+        List<String> payloads = UserCacheInvalidationPayloads.encode(event);
+        for (String payload : payloads) {
+            jdbcTemplate.queryForRowSet("select pg_notify(?, ?)", channel, payload);
+        }
+        log.debug("Sent user cache invalidations: {}", payloads.size());
+    }
+}
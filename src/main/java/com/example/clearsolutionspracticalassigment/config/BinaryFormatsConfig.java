@@ -0,0 +1,50 @@
+package com.example.clearsolutionspracticalassigment.config;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.UUID;
+
+/*
+Lets clients exchange users as application/cbor or application/x-jackson-smile instead of JSON.
+Spring MVC would register both converters on its own, but with mappers that ignore spring.jackson.*
+and write dates as arrays; these start from the builder Boot configures the JSON mapper with,
+so field names and formats are the same in every representation
+*/
+@Configuration(proxyBeanMethods = false)
+public class BinaryFormatsConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder objectMapperBuilder
+    ) {
+        return new MappingJackson2CborHttpMessageConverter(
+                binaryObjectMapper(objectMapperBuilder.factory(new CBORFactory()))
+        );
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder objectMapperBuilder
+    ) {
+        return new MappingJackson2SmileHttpMessageConverter(
+                binaryObjectMapper(objectMapperBuilder.factory(new SmileFactory()))
+        );
+    }
+
+    private static ObjectMapper binaryObjectMapper(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        ObjectMapper objectMapper = objectMapperBuilder.build();
+        // both formats would write uuids as 16 raw bytes, clients decoding them generically expect the JSON string
+        objectMapper.configOverride(UUID.class)
+                .setFormat(JsonFormat.Value.forShape(JsonFormat.Shape.STRING));
+
+        return objectMapper;
+    }
+}
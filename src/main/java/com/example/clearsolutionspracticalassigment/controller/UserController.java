@@ -1,22 +1,53 @@
 package com.example.clearsolutionspracticalassigment.controller;
 
+import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserBatchItemRequestPayload;
 import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.dto.BatchDeleteResultDTO;
+import com.example.clearsolutionspracticalassigment.dto.BatchItemResultDTO;
+import com.example.clearsolutionspracticalassigment.dto.UserCreationDTO;
 import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+import com.example.clearsolutionspracticalassigment.dto.UserPageDTO;
 import com.example.clearsolutionspracticalassigment.controller.payload.CreateUserRequestPayload;
 import com.example.clearsolutionspracticalassigment.controller.payload.UpdateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.controller.validation.StrictUuidEditor;
+import com.example.clearsolutionspracticalassigment.exception.NotFoundException;
+import com.example.clearsolutionspracticalassigment.exception.PreconditionFailedException;
+import com.example.clearsolutionspracticalassigment.feed.UserChangeFeed;
+import com.example.clearsolutionspracticalassigment.ingestion.UserWriteBehind;
 
 import com.example.clearsolutionspracticalassigment.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
-import org.hibernate.validator.constraints.UUID;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.example.clearsolutionspracticalassigment.controller.validation.ValidationErrorMessages.*;
 
@@ -27,15 +58,63 @@ public class UserController {
 
     public static final String USER_PATH = "v1/user";
     public static final String USER_PATH_ID = USER_PATH + "/{userId}";
+    public static final String USER_BATCH_PATH = USER_PATH + "/batch";
+    public static final String USER_EVENTS_PATH = USER_PATH + "/events";
+    public static final String USER_PATH_ID_EVENTS = USER_PATH_ID + "/events";
+    public static final String USER_CREATION_PATH = USER_PATH + "/creations";
+    public static final String USER_CREATION_PATH_ID = USER_CREATION_PATH + "/{userId}";
+
+    // RFC 7240, clients opt into write-behind creation with "Prefer: respond-async"
+    public static final String PREFER_HEADER = "Prefer";
+    public static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    public static final String RESPOND_ASYNC_PREFERENCE = "respond-async";
+
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    public static final String DEFAULT_PAGE_LIMIT = "100";
+    public static final int MAX_PAGE_LIMIT = 1000;
+
+    public static final int MAX_SUBSCRIBED_USERS = 1000;
+
+    private static final String NDJSON_SEPARATOR = "\n";
+    private static final int STREAM_FLUSH_INTERVAL = 1000;
+    private static final String NO_USER_CREATIONS_MESSAGE =
+            "Given invalid user id: no user creations with such id";
+    private static final String NO_USER_EVENTS_MESSAGE =
+            "Given invalid request: user event streams are disabled";
+    private static final String NO_CURRENT_USER_MESSAGE =
+            "Precondition failed: If-Match: * requires the user to exist";
 
     public final UserService userService;
+    // absent when cache.user.invalidation.enabled is off, nothing would tell the streams about changes
+    private final Optional<UserChangeFeed> userChangeFeed;
+    // absent when ingestion.user.writeBehind.enabled is off, creations are synchronous then
+    private final Optional<UserWriteBehind> userWriteBehind;
+    private final ObjectMapper objectMapper;
+
+    // user ids are validated and parsed in one step
+    @InitBinder
+    public void registerUuidEditor(WebDataBinder binder) {
+        binder.registerCustomEditor(UUID.class, new StrictUuidEditor());
+    }
 
     @PostMapping(USER_PATH)
-    public ResponseEntity<Void> createUser(
+    public ResponseEntity<UserCreationDTO> createUser(
             @RequestBody
             @Valid
-            CreateUserRequestPayload creationData
+            CreateUserRequestPayload creationData,
+            @RequestHeader(value = PREFER_HEADER, required = false)
+            String prefer
     ) {
+        if (userWriteBehind.isPresent() && prefersRespondAsync(prefer)) {
+            UserCreationDTO acceptedCreation = userWriteBehind.get().accept(creationData);
+
+            return ResponseEntity.accepted()
+                    .location(URI.create(USER_CREATION_PATH + "/" + acceptedCreation.getUuid()))
+                    .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC_PREFERENCE)
+                    .body(acceptedCreation);
+        }
+
         UserDTO createdUser = userService.createUser(creationData);
 
         URI createdUserLocation = URI.create(USER_PATH + "/" + createdUser.getUuid());
@@ -43,19 +122,46 @@ public class UserController {
         return ResponseEntity.created(createdUserLocation).build();
     }
 
+    @GetMapping(USER_CREATION_PATH_ID)
+    public ResponseEntity<UserCreationDTO> getUserCreation(
+            @PathVariable
+            UUID userId
+    ) {
+        UserCreationDTO creation = userWriteBehind
+                .orElseThrow(() -> new NotFoundException(NO_USER_CREATIONS_MESSAGE))
+                .getCreation(userId);
+
+        return ResponseEntity.ok(creation);
+    }
+
+    @PostMapping(USER_BATCH_PATH)
+    public ResponseEntity<List<BatchItemResultDTO>> createUsers(
+            @RequestBody
+            @NotEmpty(message = EMPTY_BATCH_MESSAGE)
+            @Size(max = MAX_BATCH_SIZE, message = BATCH_SIZE_MESSAGE)
+            List<@Valid CreateUserRequestPayload> creationData
+    ) {
+        List<BatchItemResultDTO> creationResults = userService.createUsers(creationData);
+
+        return ResponseEntity.ok(creationResults);
+    }
+
     @PutMapping(USER_PATH_ID)
     public ResponseEntity<Void> updateUser(
             @PathVariable
-            @UUID(message = INVALID_UUID_MESSAGE, allowNil = false)
-            String userId,
+            UUID userId,
             @RequestBody
             @Valid
-            UpdateUserRequestPayload updatedData
+            UpdateUserRequestPayload updatedData,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+            String ifMatch
     ) {
-        userService.updateUser(
-                java.util.UUID.fromString(userId),
-                updatedData
-        );
+        Long expectedVersion = UserVersionETag.parseIfMatch(ifMatch);
+        requiringCurrentUser(ifMatch, () -> userService.updateUser(
+                userId,
+                updatedData,
+                expectedVersion
+        ));
 
         return ResponseEntity.noContent().build();
     }
@@ -63,60 +169,220 @@ public class UserController {
     @PatchMapping(USER_PATH_ID)
     public ResponseEntity<Void> patchUser(
             @PathVariable
-            @UUID(message = INVALID_UUID_MESSAGE, allowNil = false)
-            String userId,
+            UUID userId,
             @RequestBody
             @Valid
-            PatchUserRequestPayload updatedData
+            PatchUserRequestPayload updatedData,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+            String ifMatch
     ) {
-        userService.patchUser(
-                java.util.UUID.fromString(userId),
-                updatedData
-        );
+        Long expectedVersion = UserVersionETag.parseIfMatch(ifMatch);
+        requiringCurrentUser(ifMatch, () -> userService.patchUser(
+                userId,
+                updatedData,
+                expectedVersion
+        ));
 
         return ResponseEntity.noContent().build();
     }
 
+    @PatchMapping(USER_BATCH_PATH)
+    public ResponseEntity<List<BatchItemResultDTO>> patchUsers(
+            @RequestBody
+            @NotEmpty(message = EMPTY_BATCH_MESSAGE)
+            @Size(max = MAX_BATCH_SIZE, message = BATCH_SIZE_MESSAGE)
+            List<@Valid PatchUserBatchItemRequestPayload> patches
+    ) {
+        List<BatchItemResultDTO> patchResults = userService.patchUsers(patches);
+
+        return ResponseEntity.ok(patchResults);
+    }
+
     @DeleteMapping(USER_PATH_ID)
     public ResponseEntity<Void> deleteUser(
             @PathVariable
-            @UUID(message = INVALID_UUID_MESSAGE, allowNil = false)
-            String userId
+            UUID userId
     ) {
         userService.deleteUser(
-                java.util.UUID.fromString(userId)
+                userId
         );
 
         return ResponseEntity.noContent().build();
     }
 
+    @DeleteMapping(USER_BATCH_PATH)
+    public ResponseEntity<BatchDeleteResultDTO> deleteUsers(
+            @RequestBody
+            @NotEmpty(message = EMPTY_BATCH_MESSAGE)
+            @Size(max = MAX_BATCH_SIZE, message = BATCH_SIZE_MESSAGE)
+            List<@NotNull(message = NOT_NULL_UUID_MESSAGE) UUID> userIds
+    ) {
+        BatchDeleteResultDTO deletionResult = userService.deleteUsers(userIds);
+
+        return ResponseEntity.ok(deletionResult);
+    }
+
+    @DeleteMapping(USER_PATH)
+    public ResponseEntity<BatchDeleteResultDTO> deleteUsersByBirthDate(
+            @RequestParam
+            @Past(message = PAST_BIRTH_DATE_MESSAGE)
+            LocalDate birthDateFrom,
+            @RequestParam
+            @Past(message = PAST_BIRTH_DATE_MESSAGE)
+            LocalDate birthDateTo
+    ) {
+        BatchDeleteResultDTO deletionResult = userService
+                .deleteAllUsersByBirthDateBetween(
+                        birthDateFrom, birthDateTo
+                );
+
+        return ResponseEntity.ok(deletionResult);
+    }
+
     @GetMapping(USER_PATH_ID)
     public ResponseEntity<UserDTO> getUserById(
             @PathVariable
-            @UUID(message = INVALID_UUID_MESSAGE, allowNil = false)
-            String userId
+            UUID userId,
+            WebRequest webRequest
     ) {
         UserDTO userResponsePayload = userService.getUserById(
-                java.util.UUID.fromString(userId)
+                userId
         );
 
-        return ResponseEntity.ok(userResponsePayload);
+        String eTag = UserVersionETag.of(userResponsePayload.getVersion());
+        // a matching If-None-Match gets its 304 from the version alone, the body is never serialized
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(userResponsePayload);
+    }
+
+    @GetMapping(value = USER_PATH_ID_EVENTS, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToUser(
+            @PathVariable
+            UUID userId
+    ) {
+        UserChangeFeed changeFeed = enabledChangeFeed();
+        // an unknown user gets the usual error response before the stream is opened
+        userService.getUserById(
+                userId
+        );
+
+        return changeFeed.subscribe(List.of(userId));
+    }
+
+    @GetMapping(value = USER_EVENTS_PATH, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToUsers(
+            @RequestParam
+            @NotEmpty(message = EMPTY_SUBSCRIPTION_MESSAGE)
+            @Size(max = MAX_SUBSCRIBED_USERS, message = SUBSCRIPTION_SIZE_MESSAGE)
+            List<UUID> userIds
+    ) {
+        // unknown users are reported by a deleted event right away
+        return enabledChangeFeed().subscribe(userIds);
     }
 
     @GetMapping(USER_PATH)
-    public ResponseEntity<List<UserDTO>> listUsers(
+    public ResponseEntity<UserPageDTO> listUsers(
             @RequestParam
             @Past(message = PAST_BIRTH_DATE_MESSAGE)
             LocalDate birthDateFrom,
             @RequestParam
             @Past(message = PAST_BIRTH_DATE_MESSAGE)
-            LocalDate birthDateTo
+            LocalDate birthDateTo,
+            @RequestParam(required = false)
+            String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_LIMIT)
+            @Min(value = 1, message = INVALID_PAGE_LIMIT_MESSAGE)
+            @Max(value = MAX_PAGE_LIMIT, message = INVALID_PAGE_LIMIT_MESSAGE)
+            int limit
     ) {
-        List<UserDTO> foundUsers = userService
+        UserPageDTO foundUsers = userService
                 .findAllUsersByBirthDateBetween(
-                        birthDateFrom, birthDateTo
+                        birthDateFrom, birthDateTo, cursor, limit
                 );
 
         return ResponseEntity.ok(foundUsers);
     }
+
+    @GetMapping(value = USER_PATH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamUsers(
+            @RequestParam
+            @Past(message = PAST_BIRTH_DATE_MESSAGE)
+            LocalDate birthDateFrom,
+            @RequestParam
+            @Past(message = PAST_BIRTH_DATE_MESSAGE)
+            LocalDate birthDateTo,
+            HttpServletResponse response
+    ) throws IOException {
+        /*
+        Written on the request thread and flushed only every STREAM_FLUSH_INTERVAL users,
+        so errors raised before the first flush still reach UserControllerAdvice as usual
+        */
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        writeUsersAsNdjson(response.getOutputStream(), birthDateFrom, birthDateTo);
+    }
+
+    private UserChangeFeed enabledChangeFeed() {
+        return userChangeFeed.orElseThrow(() -> new NotFoundException(NO_USER_EVENTS_MESSAGE));
+    }
+
+    /*
+    "*" matches any current representation, so a user that doesn't exist
+    fails the precondition rather than being reported as not found
+    */
+    private static void requiringCurrentUser(String ifMatch, Runnable update) {
+        try {
+            update.run();
+        } catch (NotFoundException e) {
+            if (UserVersionETag.matchesAny(ifMatch)) {
+                throw new PreconditionFailedException(NO_CURRENT_USER_MESSAGE);
+            }
+            throw e;
+        }
+    }
+
+    // a preference list like "respond-async, wait=5", parameters of a preference follow a ';'
+    private static boolean prefersRespondAsync(String prefer) {
+        return prefer != null && Arrays.stream(prefer.split(","))
+                .map(preference -> preference.split(";")[0].trim())
+                .anyMatch(RESPOND_ASYNC_PREFERENCE::equalsIgnoreCase);
+    }
+
+    private void writeUsersAsNdjson(
+            OutputStream outputStream,
+            LocalDate birthDateFrom,
+            LocalDate birthDateTo
+    ) throws IOException {
+        AtomicLong writtenUsers = new AtomicLong();
+
+        try (SequenceWriter userWriter = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                .withRootValueSeparator(NDJSON_SEPARATOR)
+                .writeValues(outputStream)) {
+            userService.streamAllUsersByBirthDateBetween(
+                    birthDateFrom, birthDateTo,
+                    user -> {
+                        try {
+                            userWriter.write(user);
+                            // pushes the first rows out while the rest are still being fetched
+                            if (writtenUsers.incrementAndGet() % STREAM_FLUSH_INTERVAL == 0) {
+                                userWriter.flush();
+                                outputStream.flush();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+            );
+        }
+
+        if (writtenUsers.get() > 0) {
+            outputStream.write(NDJSON_SEPARATOR.getBytes(StandardCharsets.UTF_8));
+        }
+    }
 }
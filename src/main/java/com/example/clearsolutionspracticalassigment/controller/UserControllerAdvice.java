@@ -4,27 +4,48 @@ import com.example.clearsolutionspracticalassigment.controller.payload.ApiErrorI
 import com.example.clearsolutionspracticalassigment.exception.InvalidArgumentException;
 
 import com.example.clearsolutionspracticalassigment.exception.NotFoundException;
+import com.example.clearsolutionspracticalassigment.exception.PreconditionFailedException;
+import com.example.clearsolutionspracticalassigment.exception.ServiceUnavailableException;
+import com.example.clearsolutionspracticalassigment.exception.TooManyRequestsException;
+import com.example.clearsolutionspracticalassigment.metrics.ClientErrorLog;
+import com.example.clearsolutionspracticalassigment.metrics.UserMetrics;
 import jakarta.validation.ConstraintViolationException;
-import lombok.extern.slf4j.Slf4j;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.List;
 
 @RestControllerAdvice
-@Slf4j
+@RequiredArgsConstructor
 public class UserControllerAdvice {
 
+    private static final String VALIDATION_REASON = "validation";
+    private static final String INVALID_ARGUMENT_REASON = "invalid_argument";
+    private static final String NOT_FOUND_REASON = "not_found";
+    private static final String PRECONDITION_FAILED_REASON = "precondition_failed";
+    private static final String TOO_MANY_REQUESTS_REASON = "too_many_requests";
+
+    // a write-behind queue drains within a few commits
+    private static final String TOO_MANY_REQUESTS_RETRY_AFTER_SECONDS = "1";
+
+    private final UserMetrics userMetrics;
+    private final ClientErrorLog clientErrorLog;
+
     @ExceptionHandler(value = {
             MethodArgumentNotValidException.class
     })
     public ResponseEntity<ApiErrorInfo> handleMethodArgumentNotValidException(
             MethodArgumentNotValidException exception
     ) {
-        log.error(exception.getMessage(), exception);
+        userMetrics.countValidationFailure();
+        clientErrorLog.record(VALIDATION_REASON, exception);
         ApiErrorInfo errorInfo = ApiErrorInfo.builder()
                 .title(InvalidArgumentException.name())
                 .status(HttpStatus.BAD_REQUEST)
@@ -34,7 +55,7 @@ public class UserControllerAdvice {
                 )
                 .build();
 
-        return new ResponseEntity<>(errorInfo, errorInfo.getStatus());
+        return toResponseEntity(errorInfo);
     }
 
     @ExceptionHandler(value = {
@@ -43,14 +64,39 @@ public class UserControllerAdvice {
     public ResponseEntity<ApiErrorInfo> handleConstraintViolationException(
             ConstraintViolationException exception
     ) {
-        log.error(exception.getMessage(), exception);
+        userMetrics.countValidationFailure();
+        clientErrorLog.record(VALIDATION_REASON, exception);
         ApiErrorInfo errorInfo = ApiErrorInfo.builder()
                 .title(InvalidArgumentException.name())
                 .status(HttpStatus.BAD_REQUEST)
                 .messages(List.of(exception.getMessage()))
                 .build();
 
-        return new ResponseEntity<>(errorInfo, errorInfo.getStatus());
+        return toResponseEntity(errorInfo);
+    }
+
+    /*
+    Path variables and params that fail conversion, like an invalid user id.
+    Keeps the "method.parameter: message" form their constraint violations had
+    */
+    @ExceptionHandler(value = {
+            MethodArgumentTypeMismatchException.class
+    })
+    public ResponseEntity<ApiErrorInfo> handleMethodArgumentTypeMismatchException(
+            MethodArgumentTypeMismatchException exception
+    ) {
+        userMetrics.countValidationFailure();
+        clientErrorLog.record(VALIDATION_REASON, exception);
+        ApiErrorInfo errorInfo = ApiErrorInfo.builder()
+                .title(InvalidArgumentException.name())
+                .status(HttpStatus.BAD_REQUEST)
+                .messages(List.of(exception.getParameter().getExecutable().getName()
+                        + "." + exception.getName()
+                        + ": " + exception.getMostSpecificCause().getMessage()
+                ))
+                .build();
+
+        return toResponseEntity(errorInfo);
     }
 
     @ExceptionHandler(value = {
@@ -59,13 +105,15 @@ public class UserControllerAdvice {
     public ResponseEntity<ApiErrorInfo> handleInvalidArgumentException(
             InvalidArgumentException exception
     ) {
+        userMetrics.countInvalidArgument();
+        clientErrorLog.record(INVALID_ARGUMENT_REASON, exception);
         ApiErrorInfo errorInfo = ApiErrorInfo.builder()
                 .title(InvalidArgumentException.name())
                 .status(HttpStatus.BAD_REQUEST)
                 .messages(List.of(exception.getMessage()))
                 .build();
 
-        return new ResponseEntity<>(errorInfo, errorInfo.getStatus());
+        return toResponseEntity(errorInfo);
     }
 
     @ExceptionHandler(value = {
@@ -74,12 +122,74 @@ public class UserControllerAdvice {
     public ResponseEntity<ApiErrorInfo> handleNotFoundException(
             NotFoundException exception
     ) {
+        userMetrics.countNotFound();
+        clientErrorLog.record(NOT_FOUND_REASON, exception);
         ApiErrorInfo errorInfo = ApiErrorInfo.builder()
                 .title(NotFoundException.name())
                 .status(HttpStatus.BAD_REQUEST)
                 .messages(List.of(exception.getMessage()))
                 .build();
 
-        return new ResponseEntity<>(errorInfo, errorInfo.getStatus());
+        return toResponseEntity(errorInfo);
+    }
+
+    @ExceptionHandler(value = {
+            PreconditionFailedException.class
+    })
+    public ResponseEntity<ApiErrorInfo> handlePreconditionFailedException(
+            PreconditionFailedException exception
+    ) {
+        userMetrics.countPreconditionFailed();
+        clientErrorLog.record(PRECONDITION_FAILED_REASON, exception);
+        ApiErrorInfo errorInfo = ApiErrorInfo.builder()
+                .title(PreconditionFailedException.name())
+                .status(HttpStatus.PRECONDITION_FAILED)
+                .messages(List.of(exception.getMessage()))
+                .build();
+
+        return toResponseEntity(errorInfo);
+    }
+
+    @ExceptionHandler(value = {
+            TooManyRequestsException.class
+    })
+    public ResponseEntity<ApiErrorInfo> handleTooManyRequestsException(
+            TooManyRequestsException exception
+    ) {
+        userMetrics.countTooManyRequests();
+        clientErrorLog.record(TOO_MANY_REQUESTS_REASON, exception);
+        ApiErrorInfo errorInfo = ApiErrorInfo.builder()
+                .title(TooManyRequestsException.name())
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .messages(List.of(exception.getMessage()))
+                .build();
+
+        return ResponseEntity.status(errorInfo.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, TOO_MANY_REQUESTS_RETRY_AFTER_SECONDS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorInfo);
+    }
+
+    // not the client's fault, so it's neither counted nor logged as a client error
+    @ExceptionHandler(value = {
+            ServiceUnavailableException.class
+    })
+    public ResponseEntity<ApiErrorInfo> handleServiceUnavailableException(
+            ServiceUnavailableException exception
+    ) {
+        ApiErrorInfo errorInfo = ApiErrorInfo.builder()
+                .title(ServiceUnavailableException.name())
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .messages(List.of(exception.getMessage()))
+                .build();
+
+        return toResponseEntity(errorInfo);
+    }
+
+    private static ResponseEntity<ApiErrorInfo> toResponseEntity(ApiErrorInfo errorInfo) {
+        // fixed type keeps errors writable when the client accepts only application/x-ndjson
+        return ResponseEntity.status(errorInfo.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorInfo);
     }
 }
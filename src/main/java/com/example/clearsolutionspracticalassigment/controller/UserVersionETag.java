@@ -0,0 +1,56 @@
+package com.example.clearsolutionspracticalassigment.controller;
+
+import com.example.clearsolutionspracticalassigment.exception.PreconditionFailedException;
+
+/*
+A user's ETag is its version in quotes. It's a strong tag for every representation:
+JSON, CBOR and Smile bodies of one version carry the same data,
+and If-Match only ever compares strong tags
+*/
+public final class UserVersionETag {
+
+    private static final String ANY_TAG = "*";
+    private static final String UNMATCHABLE_TAG_MESSAGE =
+            "Precondition failed: If-Match must be a single strong ETag of the user";
+
+    private UserVersionETag() {
+    }
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static boolean matchesAny(String ifMatch) {
+        return ifMatch != null && ifMatch.trim().equals(ANY_TAG);
+    }
+
+    /*
+    The version an If-Match header requires, null when there's no header or it's "*",
+    the user has to exist either way. Weak and foreign tags can never match,
+    so they fail the precondition right away instead of reaching the database
+    */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.equals(ANY_TAG)) {
+            return null;
+        }
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new PreconditionFailedException(UNMATCHABLE_TAG_MESSAGE);
+        }
+
+        long version = 0;
+        for (int index = 1; index < tag.length() - 1; index++) {
+            int digit = tag.charAt(index) - '0';
+            if (digit < 0 || digit > 9 || version > (Long.MAX_VALUE - digit) / 10) {
+                throw new PreconditionFailedException(UNMATCHABLE_TAG_MESSAGE);
+            }
+            version = version * 10 + digit;
+        }
+
+        return version;
+    }
+}
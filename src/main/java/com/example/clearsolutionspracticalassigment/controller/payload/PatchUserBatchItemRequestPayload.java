@@ -0,0 +1,24 @@
+package com.example.clearsolutionspracticalassigment.controller.payload;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.UUID;
+
+import static com.example.clearsolutionspracticalassigment.controller.validation.ValidationErrorMessages.*;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PatchUserBatchItemRequestPayload {
+
+    @NotNull(message = NOT_NULL_UUID_MESSAGE)
+    private UUID uuid;
+
+    @NotNull(message = NOT_NULL_CHANGES_MESSAGE)
+    @Valid
+    private PatchUserRequestPayload changes;
+}
@@ -1,15 +1,14 @@
 package com.example.clearsolutionspracticalassigment.controller.payload;
 
+import com.example.clearsolutionspracticalassigment.controller.validation.ValidEmail;
+import com.example.clearsolutionspracticalassigment.controller.validation.ValidPhoneNumber;
 import com.fasterxml.jackson.annotation.JsonFormat;
-import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Past;
-import jakarta.validation.constraints.Pattern;
 import lombok.*;
 
 import java.time.LocalDate;
 
 import static com.example.clearsolutionspracticalassigment.controller.validation.ValidationErrorMessages.*;
-import static com.example.clearsolutionspracticalassigment.controller.validation.ValidationPatterns.*;
 
 @Getter
 @Setter
@@ -18,10 +17,8 @@ import static com.example.clearsolutionspracticalassigment.controller.validation
 @NoArgsConstructor
 public class PatchUserRequestPayload {
 
-    @Email(
-            regexp = EMAIL_PATTERN,
-            message = INVALID_EMAIL_MESSAGE
-    )    private String email;
+    @ValidEmail(message = INVALID_EMAIL_MESSAGE)
+    private String email;
 
     private String firstName;
 
@@ -36,9 +33,6 @@ public class PatchUserRequestPayload {
 
     private String address;
 
-    @Pattern(
-            regexp = PHONE_NUMBER_PATTERN,
-            message = INVALID_PHONE_NUMBER_MESSAGE
-    )
+    @ValidPhoneNumber(message = INVALID_PHONE_NUMBER_MESSAGE)
     private String phoneNumber;
 }
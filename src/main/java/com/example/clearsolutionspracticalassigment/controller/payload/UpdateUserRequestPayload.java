@@ -1,5 +1,7 @@
 package com.example.clearsolutionspracticalassigment.controller.payload;
 
+import com.example.clearsolutionspracticalassigment.controller.validation.ValidEmail;
+import com.example.clearsolutionspracticalassigment.controller.validation.ValidPhoneNumber;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.*;
 import lombok.*;
@@ -7,7 +9,6 @@ import lombok.*;
 import java.time.LocalDate;
 
 import static com.example.clearsolutionspracticalassigment.controller.validation.ValidationErrorMessages.*;
-import static com.example.clearsolutionspracticalassigment.controller.validation.ValidationPatterns.*;
 
 @Getter
 @Setter
@@ -17,10 +18,7 @@ import static com.example.clearsolutionspracticalassigment.controller.validation
 public class UpdateUserRequestPayload {
 
     @NotNull(message = NOT_NULL_EMAIL_MESSAGE)
-    @Email(
-            regexp = EMAIL_PATTERN,
-            message = INVALID_EMAIL_MESSAGE
-    )
+    @ValidEmail(message = INVALID_EMAIL_MESSAGE)
     private String email;
 
     @NotBlank(message = NOT_BLANC_FIRST_NAME_MESSAGE)
@@ -39,9 +37,6 @@ public class UpdateUserRequestPayload {
 
     private String address;
 
-    @Pattern(
-            regexp = PHONE_NUMBER_PATTERN,
-            message = INVALID_PHONE_NUMBER_MESSAGE
-    )
+    @ValidPhoneNumber(message = INVALID_PHONE_NUMBER_MESSAGE)
     private String phoneNumber;
 }
@@ -0,0 +1,85 @@
+package com.example.clearsolutionspracticalassigment.controller.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/*
+One pass over the chars instead of EMAIL_PATTERN plus the checks @Email runs on its own:
+ 1) local part of word chars, '-' and '.', at most 64 chars, no leading, trailing or doubled dot
+ 2) at least two domain labels of word chars and '-', a label can't start or end with '-'
+ 3) labels of at most 63 chars, the last one of 2 to 4 chars, at most 255 chars in the domain
+*/
+public class EmailValidator implements ConstraintValidator<ValidEmail, CharSequence> {
+
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_DOMAIN_LENGTH = 255;
+    private static final int MAX_LABEL_LENGTH = 63;
+    private static final int MIN_TOP_LEVEL_LABEL_LENGTH = 2;
+    private static final int MAX_TOP_LEVEL_LABEL_LENGTH = 4;
+
+    @Override
+    public boolean isValid(CharSequence email, ConstraintValidatorContext context) {
+        if (email == null) {
+            return true;
+        }
+
+        int length = email.length();
+        int atIndex = 0;
+        char previous = '.';
+        while (atIndex < length && email.charAt(atIndex) != '@') {
+            char current = email.charAt(atIndex);
+            if (current == '.' ? previous == '.' : !isLabelChar(current)) {
+                return false;
+            }
+            previous = current;
+            atIndex++;
+        }
+        if (atIndex == 0 || atIndex > MAX_LOCAL_PART_LENGTH || atIndex == length || previous == '.') {
+            return false;
+        }
+
+        return isValidDomain(email, atIndex + 1, length);
+    }
+
+    private static boolean isValidDomain(CharSequence email, int domainStart, int length) {
+        if (length - domainStart > MAX_DOMAIN_LENGTH) {
+            return false;
+        }
+
+        int labelsCount = 0;
+        int labelStart = domainStart;
+        int labelLength = 0;
+        for (int index = domainStart; index <= length; index++) {
+            if (index < length && email.charAt(index) != '.') {
+                if (!isLabelChar(email.charAt(index))) {
+                    return false;
+                }
+                continue;
+            }
+
+            labelLength = index - labelStart;
+            if (labelLength == 0
+                    || labelLength > MAX_LABEL_LENGTH
+                    || email.charAt(labelStart) == '-'
+                    || email.charAt(index - 1) == '-') {
+                return false;
+            }
+            labelsCount++;
+            labelStart = index + 1;
+        }
+
+        // the loop ends on the top-level label
+        return labelsCount >= 2
+                && labelLength >= MIN_TOP_LEVEL_LABEL_LENGTH
+                && labelLength <= MAX_TOP_LEVEL_LABEL_LENGTH;
+    }
+
+    // same as [\w-] of the former pattern
+    private static boolean isLabelChar(char value) {
+        return (value >= 'a' && value <= 'z')
+                || (value >= 'A' && value <= 'Z')
+                || (value >= '0' && value <= '9')
+                || value == '_'
+                || value == '-';
+    }
+}
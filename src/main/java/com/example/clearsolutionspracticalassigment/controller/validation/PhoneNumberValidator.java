@@ -0,0 +1,31 @@
+package com.example.clearsolutionspracticalassigment.controller.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+// PHONE_NUMBER_PATTERN without the regex: 9 to 15 chars of digits, '-' and '+'
+public class PhoneNumberValidator implements ConstraintValidator<ValidPhoneNumber, CharSequence> {
+
+    private static final int MIN_LENGTH = 9;
+    private static final int MAX_LENGTH = 15;
+
+    @Override
+    public boolean isValid(CharSequence phoneNumber, ConstraintValidatorContext context) {
+        if (phoneNumber == null) {
+            return true;
+        }
+
+        int length = phoneNumber.length();
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return false;
+        }
+        for (int index = 0; index < length; index++) {
+            char current = phoneNumber.charAt(index);
+            if ((current < '0' || current > '9') && current != '-' && current != '+') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
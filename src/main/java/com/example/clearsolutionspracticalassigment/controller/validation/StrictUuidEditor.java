@@ -0,0 +1,91 @@
+package com.example.clearsolutionspracticalassigment.controller.validation;
+
+import java.beans.PropertyEditorSupport;
+import java.util.UUID;
+
+import static com.example.clearsolutionspracticalassigment.controller.validation.ValidationErrorMessages.INVALID_UUID_MESSAGE;
+
+/*
+Validates and parses in the same pass, with the rules @UUID(allowNil = false) applied before:
+ 1) 36 chars, dashes at 8, 13, 18 and 23 and lower case hex digits everywhere else
+ 2) version from 1 to 15, which also rules out the nil uuid
+ 3) variant from 0 to 2, so the reserved 0xE and 0xF variant digits are rejected
+Nothing but the UUID itself is allocated for a valid value.
+An editor rather than a Converter: when a Converter fails,
+Spring falls back to its default UUIDEditor, which is the lenient UUID.fromString
+*/
+public class StrictUuidEditor extends PropertyEditorSupport {
+
+    private static final int UUID_LENGTH = 36;
+    private static final int MAX_VARIANT_DIGIT = 0xD;
+    private static final long INVALID_GROUP = -1;
+
+    @Override
+    public void setAsText(String text) {
+        setValue(parse(text));
+    }
+
+    public static UUID parse(String source) {
+        if (source.length() != UUID_LENGTH
+                || source.charAt(8) != '-'
+                || source.charAt(13) != '-'
+                || source.charAt(18) != '-'
+                || source.charAt(23) != '-') {
+            throw invalidUuid();
+        }
+
+        long timeLow = parseGroup(source, 0, 8);
+        long timeMid = parseGroup(source, 9, 13);
+        long timeHighAndVersion = parseGroup(source, 14, 18);
+        long variantAndSequence = parseGroup(source, 19, 23);
+        long node = parseGroup(source, 24, 36);
+        if (timeLow == INVALID_GROUP
+                || timeMid == INVALID_GROUP
+                || timeHighAndVersion == INVALID_GROUP
+                || variantAndSequence == INVALID_GROUP
+                || node == INVALID_GROUP
+                || timeHighAndVersion >>> 12 == 0
+                || variantAndSequence >>> 12 > MAX_VARIANT_DIGIT) {
+            throw invalidUuid();
+        }
+
+        return new UUID(
+                timeLow << 32 | timeMid << 16 | timeHighAndVersion,
+                variantAndSequence << 48 | node
+        );
+    }
+
+    // at most 12 digits, so a valid group never collides with INVALID_GROUP
+    private static long parseGroup(String source, int start, int end) {
+        long group = 0;
+        for (int index = start; index < end; index++) {
+            int digit = hexDigit(source.charAt(index));
+            if (digit < 0) {
+                return INVALID_GROUP;
+            }
+            group = group << 4 | digit;
+        }
+
+        return group;
+    }
+
+    private static int hexDigit(char value) {
+        if (value >= '0' && value <= '9') {
+            return value - '0';
+        }
+        if (value >= 'a' && value <= 'f') {
+            return value - 'a' + 10;
+        }
+        if (value < 0x80) {
+            return -1;
+        }
+
+        // Character.digit is what @UUID and UUID.fromString accepted, non-ASCII digits included
+        int digit = Character.digit(value, 16);
+        return digit > 9 && !Character.isLowerCase(value) ? -1 : digit;
+    }
+
+    private static IllegalArgumentException invalidUuid() {
+        return new IllegalArgumentException(INVALID_UUID_MESSAGE);
+    }
+}
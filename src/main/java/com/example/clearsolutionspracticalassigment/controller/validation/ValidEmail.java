@@ -0,0 +1,29 @@
+package com.example.clearsolutionspracticalassigment.controller.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.ElementType.TYPE_USE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/*
+Accepts the same emails as @Email(regexp = EMAIL_PATTERN) did, null included
+*/
+@Documented
+@Constraint(validatedBy = EmailValidator.class)
+@Target({FIELD, PARAMETER, TYPE_USE})
+@Retention(RUNTIME)
+public @interface ValidEmail {
+
+    String message() default ValidationErrorMessages.INVALID_EMAIL_MESSAGE;
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
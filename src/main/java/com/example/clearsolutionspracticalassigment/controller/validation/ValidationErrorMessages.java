@@ -14,5 +14,16 @@ public class ValidationErrorMessages {
 
     public static final String INVALID_PHONE_NUMBER_MESSAGE = "Given invalid phone number";
 
+    public static final String NOT_NULL_UUID_MESSAGE = "Request must include uuid";
     public static final String INVALID_UUID_MESSAGE = "Given invalid uuid";
+
+    public static final String NOT_NULL_CHANGES_MESSAGE = "Request must include changes";
+
+    public static final String EMPTY_BATCH_MESSAGE = "Request must include at least one item";
+    public static final String BATCH_SIZE_MESSAGE = "Given too large batch: it can't include more than 10000 items";
+
+    public static final String INVALID_PAGE_LIMIT_MESSAGE = "Given invalid page limit: it must be between 1 and 1000";
+
+    public static final String EMPTY_SUBSCRIPTION_MESSAGE = "Request must include at least one user id";
+    public static final String SUBSCRIPTION_SIZE_MESSAGE = "Given too many user ids: a subscription can't include more than 1000 users";
 }
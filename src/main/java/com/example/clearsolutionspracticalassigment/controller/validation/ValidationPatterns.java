@@ -1,5 +1,9 @@
 package com.example.clearsolutionspracticalassigment.controller.validation;
 
+/*
+Payloads are checked by EmailValidator and PhoneNumberValidator instead,
+these stay as the reference the validators are tested and benchmarked against
+*/
 public class ValidationPatterns {
 
     public static final String EMAIL_PATTERN = "^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$";
@@ -0,0 +1,6 @@
+package com.example.clearsolutionspracticalassigment.datasource;
+
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
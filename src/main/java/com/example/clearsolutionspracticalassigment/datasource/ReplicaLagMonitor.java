@@ -0,0 +1,63 @@
+package com.example.clearsolutionspracticalassigment.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/*
+The replica counts as lagging when it has WAL left to replay
+and its last replayed commit is older than maxLag.
+A replica that can't be queried isn't used either
+*/
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_QUERY = """
+            select case
+                       when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                       else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0)
+                   end
+            """;
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final Duration maxLag;
+
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(
+            DataSource replicaDataSource,
+            Duration maxLag
+    ) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.maxLag = maxLag;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag.checkIntervalMillis}")
+    public void checkReplicaLag() {
+        boolean wasUsable = replicaUsable;
+        try {
+            Double lagSeconds = replicaJdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+            replicaUsable = lagSeconds != null && lagSeconds * 1000 <= maxLag.toMillis();
+            if (wasUsable && !replicaUsable) {
+                log.warn("Replica lags behind by {}s, reading from primary", lagSeconds);
+            }
+        } catch (DataAccessException e) {
+            replicaUsable = false;
+            if (wasUsable) {
+                log.warn("Replica is unavailable, reading from primary: {}", e.getMessage());
+            }
+        }
+
+        if (!wasUsable && replicaUsable) {
+            log.info("Replica caught up, reading from replica");
+        }
+    }
+}
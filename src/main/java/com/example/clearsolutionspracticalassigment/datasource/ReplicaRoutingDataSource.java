@@ -0,0 +1,46 @@
+package com.example.clearsolutionspracticalassigment.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/*
+Sends read-only transactions to the replica while it keeps up with the primary,
+everything else goes to the primary.
+Must be wrapped in a LazyConnectionDataSourceProxy: the route is picked when the connection
+is fetched, and only a lazy one is fetched after the transaction declared itself read-only
+*/
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = ThreadLocal.withInitial(() -> false);
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+    }
+
+    /*
+    For reads whose result outlives the request, like cache loads:
+    a replica that hasn't replayed the last commit yet would get them cached stale
+    */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        boolean primaryRequired = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(true);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_REQUIRED.set(primaryRequired);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replicaAllowed = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !PRIMARY_REQUIRED.get()
+                && replicaLagMonitor.isReplicaUsable();
+
+        return replicaAllowed ? DataSourceRoute.REPLICA : DataSourceRoute.PRIMARY;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.clearsolutionspracticalassigment.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchDeleteResultDTO {
+
+    private long deletedCount;
+}
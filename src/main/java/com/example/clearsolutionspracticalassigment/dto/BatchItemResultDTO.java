@@ -0,0 +1,24 @@
+package com.example.clearsolutionspracticalassigment.dto;
+
+import lombok.*;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResultDTO {
+
+    // position of the item in the request body
+    private int index;
+
+    private UUID uuid;
+
+    private HttpStatus status;
+
+    private List<String> messages;
+}
@@ -0,0 +1,22 @@
+package com.example.clearsolutionspracticalassigment.dto;
+
+import lombok.*;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+// outcome of a write-behind creation, ACCEPTED until the user is stored or rejected
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCreationDTO {
+
+    private UUID uuid;
+
+    private HttpStatus status;
+
+    private List<String> messages;
+}
@@ -1,6 +1,7 @@
 package com.example.clearsolutionspracticalassigment.dto;
 
 import com.example.clearsolutionspracticalassigment.entity.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 import java.time.LocalDate;
@@ -27,6 +28,23 @@ public class UserDTO {
 
     private String phoneNumber;
 
+    // travels in the ETag header only, range queries leave it null
+    @JsonIgnore
+    private Long version;
+
+    // for the range queries, which stay index-only scans by not selecting the version
+    public UserDTO(
+            UUID uuid,
+            String email,
+            String firstName,
+            String lastName,
+            LocalDate birthDate,
+            String address,
+            String phoneNumber
+    ) {
+        this(uuid, email, firstName, lastName, birthDate, address, phoneNumber, null);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,21 @@
+package com.example.clearsolutionspracticalassigment.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDTO {
+
+    private List<UserDTO> users;
+
+    /*
+    Opaque token of the last returned (birthDate, uuid) pair,
+    null when there are no more users in the requested range
+    */
+    private String nextCursor;
+}
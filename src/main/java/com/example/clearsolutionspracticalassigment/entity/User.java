@@ -2,13 +2,20 @@ package com.example.clearsolutionspracticalassigment.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
 @Table(name = "users")
+// regions are declared in application.conf, they stay unused unless the second-level cache is on
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-natural-id")
 @Getter
 @Setter
 @Builder
@@ -16,8 +23,14 @@ import java.util.UUID;
 @NoArgsConstructor
 public class User {
 
+    /*
+    Same sequence and increment Hibernate derives by default, made explicit:
+    the pooled optimizer hands out 50 ids per sequence round trip,
+    which keeps batch inserts from fetching an id per row
+    */
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id_generator")
+    @SequenceGenerator(name = "user_id_generator", sequenceName = "user_seq", allocationSize = 50)
     @Column(name = "id", unique = true, nullable = false)
     private Long id;
 
@@ -43,6 +56,14 @@ public class User {
     @Column(name = "phoneNumber")
     private String phoneNumber;
 
+    /*
+    Bumped by every write, the bulk updates of UserRepositoryCustomImpl do it by hand.
+    It's the user's ETag as well, see UserController
+    */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public User(UUID uuid) {
         this.uuid = uuid;
     }
@@ -0,0 +1,30 @@
+package com.example.clearsolutionspracticalassigment.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/*
+Published by UserServiceImpl inside the transaction of every write,
+listeners decide themselves whether they react before or after commit
+*/
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+
+    private final UserChangeType type;
+
+    // null when the changed users aren't known one by one, e.g. after a range delete
+    private final Collection<UUID> userIds;
+
+    public UserChangedEvent(UserChangeType type, UUID userId) {
+        this(type, List.of(userId));
+    }
+
+    public boolean affectsUnknownUsers() {
+        return userIds == null;
+    }
+}
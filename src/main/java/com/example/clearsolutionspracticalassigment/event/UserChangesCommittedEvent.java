@@ -0,0 +1,23 @@
+package com.example.clearsolutionspracticalassigment.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/*
+Published by UserCacheInvalidationListener for the writes any node committed,
+its own ones included. Invalidations don't carry the kind of change, only the users
+*/
+@Getter
+@AllArgsConstructor
+public class UserChangesCommittedEvent {
+
+    // null when the changed users aren't known one by one, or changes may have been missed
+    private final Collection<UUID> userIds;
+
+    public boolean affectsUnknownUsers() {
+        return userIds == null;
+    }
+}
@@ -1,6 +1,6 @@
 package com.example.clearsolutionspracticalassigment.exception;
 
-public class InvalidArgumentException extends RuntimeException {
+public class InvalidArgumentException extends StacklessException {
 
     public InvalidArgumentException(String message) {
         super(message);
@@ -1,6 +1,7 @@
 package com.example.clearsolutionspracticalassigment.exception;
 
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends StacklessException {
+
     public NotFoundException(String message) {
         super(message);
     }
@@ -0,0 +1,12 @@
+package com.example.clearsolutionspracticalassigment.exception;
+
+public class PreconditionFailedException extends StacklessException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public static String name() {
+        return "Precondition failed exception";
+    }
+}
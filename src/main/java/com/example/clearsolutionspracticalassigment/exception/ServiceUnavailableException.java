@@ -0,0 +1,12 @@
+package com.example.clearsolutionspracticalassigment.exception;
+
+public class ServiceUnavailableException extends StacklessException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public static String name() {
+        return "Service unavailable exception";
+    }
+}
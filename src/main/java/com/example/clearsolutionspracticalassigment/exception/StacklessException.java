@@ -0,0 +1,13 @@
+package com.example.clearsolutionspracticalassigment.exception;
+
+/*
+The exceptions of this package are expected outcomes answered with a status, often on hot paths:
+scans over stale ids, lost If-Match races, rejections under load. Their stack traces
+would never be looked at, so they aren't captured
+*/
+public abstract class StacklessException extends RuntimeException {
+
+    protected StacklessException(String message) {
+        super(message, null, false, false);
+    }
+}
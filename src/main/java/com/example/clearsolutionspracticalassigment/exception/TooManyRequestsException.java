@@ -0,0 +1,12 @@
+package com.example.clearsolutionspracticalassigment.exception;
+
+public class TooManyRequestsException extends StacklessException {
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+
+    public static String name() {
+        return "Too many requests exception";
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.clearsolutionspracticalassigment.feed;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface UserChangeFeed {
+
+    /*
+    Opens a stream that starts with the current snapshot of each user,
+    followed by a new one whenever a change of the user commits
+    */
+    SseEmitter subscribe(Collection<UUID> userIds);
+}
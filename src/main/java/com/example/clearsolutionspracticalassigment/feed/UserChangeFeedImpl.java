@@ -0,0 +1,302 @@
+package com.example.clearsolutionspracticalassigment.feed;
+
+import com.example.clearsolutionspracticalassigment.datasource.ReplicaRoutingDataSource;
+import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+import com.example.clearsolutionspracticalassigment.event.UserChangesCommittedEvent;
+import com.example.clearsolutionspracticalassigment.repository.UserRepository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+Idle subscriptions hold no thread, only their async request and an entry in the subscriber set
+of each of their users. One dispatcher thread loads and serializes a change once,
+however many subscribers its user has, and the users nobody subscribed to are never loaded.
+It only queues the events, a fixed pool of sender threads writes out the queues that have events,
+one subscriber per thread at a time. A client that stops reading holds up only its own queue
+and one sender, the other queues wait their turn however many subscribers there are.
+Changes come from the cache invalidation channel, so subscribers hear about the writes
+of every node, not only of the one they're connected to. Without the channel there's no feed
+*/
+@Component
+@ConditionalOnProperty(name = "cache.user.invalidation.enabled", havingValue = "true")
+@Slf4j
+public class UserChangeFeedImpl implements UserChangeFeed, SmartLifecycle {
+
+    static final String USER_EVENT = "user";
+    static final String DELETED_EVENT = "deleted";
+
+    // one IN list per chunk of changed users, like the batch writes
+    private static final int SNAPSHOTS_PER_QUERY = 1000;
+    // writes are short unless a client stops reading, a thread per core but never a single one
+    static final int SENDER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    // keeps proxies from closing idle streams and finds the subscribers that went away
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event()
+            .comment("heartbeat")
+            .build();
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration subscriptionTimeout;
+    private final Duration heartbeatInterval;
+    private final int subscriberQueueCapacity;
+
+    private final Map<UUID, Set<Subscription>> subscriptionsByUser = new ConcurrentHashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private volatile ScheduledExecutorService dispatcher;
+    private volatile ExecutorService sender;
+
+    public UserChangeFeedImpl(
+            UserRepository userRepository,
+            ObjectMapper objectMapper,
+            @Value("${feed.user.subscriptionTimeout}") Duration subscriptionTimeout,
+            @Value("${feed.user.heartbeatInterval}") Duration heartbeatInterval,
+            @Value("${feed.user.subscriberQueueCapacity}") int subscriberQueueCapacity
+    ) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.subscriptionTimeout = subscriptionTimeout;
+        this.heartbeatInterval = heartbeatInterval;
+        this.subscriberQueueCapacity = subscriberQueueCapacity;
+    }
+
+    @Override
+    public SseEmitter subscribe(Collection<UUID> userIds) {
+        // clients reconnect after the timeout, their first event is a fresh snapshot anyway
+        SseEmitter emitter = new SseEmitter(subscriptionTimeout.toMillis());
+        subscribe(emitter, userIds);
+
+        return emitter;
+    }
+
+    void subscribe(SseEmitter emitter, Collection<UUID> userIds) {
+        Subscription subscription = new Subscription(emitter, Set.copyOf(userIds), subscriberQueueCapacity);
+        emitter.onCompletion(() -> unsubscribe(subscription));
+
+        subscriptions.add(subscription);
+        for (UUID userId : subscription.getUserIds()) {
+            subscriptionsByUser.compute(userId, (subscribedUserId, userSubscriptions) -> {
+                Set<Subscription> updatedSubscriptions = userSubscriptions == null
+                        ? ConcurrentHashMap.newKeySet()
+                        : userSubscriptions;
+                updatedSubscriptions.add(subscription);
+
+                return updatedSubscriptions;
+            });
+        }
+
+        // registered first, so a change committed meanwhile is sent after the snapshot, never lost
+        dispatch(() -> sendSnapshots(List.copyOf(subscription.getUserIds()), userId -> Set.of(subscription)));
+    }
+
+    @EventListener
+    public void publishChangedUsers(UserChangesCommittedEvent event) {
+        dispatch(() -> {
+            List<UUID> subscribedUserIds = event.affectsUnknownUsers()
+                    ? List.copyOf(subscriptionsByUser.keySet())
+                    : event.getUserIds().stream().filter(subscriptionsByUser::containsKey).toList();
+
+            sendSnapshots(subscribedUserIds, subscriptionsByUser::get);
+        });
+    }
+
+    @Override
+    public void start() {
+        sender = Executors.newFixedThreadPool(
+                SENDER_THREADS, runnable -> daemonThread(runnable, "user-change-feed-sender")
+        );
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> daemonThread(runnable, "user-change-feed"));
+        dispatcher.scheduleWithFixedDelay(
+                () -> subscriptions.forEach(subscription -> send(subscription, HEARTBEAT)),
+                heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS
+        );
+    }
+
+    @Override
+    public void stop() {
+        dispatcher.shutdownNow();
+        dispatcher = null;
+        sender.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.getEmitter().complete());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return dispatcher != null;
+    }
+
+    private void dispatch(Runnable task) {
+        ScheduledExecutorService currentDispatcher = dispatcher;
+        if (currentDispatcher == null) {
+            return;
+        }
+
+        currentDispatcher.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Failed to send user changes to subscribers: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void sendSnapshots(List<UUID> userIds, Function<UUID, Set<Subscription>> recipients) {
+        for (int chunkStart = 0; chunkStart < userIds.size(); chunkStart += SNAPSHOTS_PER_QUERY) {
+            List<UUID> chunk = userIds.subList(chunkStart, Math.min(chunkStart + SNAPSHOTS_PER_QUERY, userIds.size()));
+            // the replica may not have replayed the change that triggered this load yet
+            Map<UUID, UserDTO> snapshots = ReplicaRoutingDataSource
+                    .readFromPrimary(() -> userRepository.findAllUserDTOsByUuidIn(chunk))
+                    .stream()
+                    .collect(Collectors.toMap(UserDTO::getUuid, Function.identity()));
+
+            for (UUID userId : chunk) {
+                Set<Subscription> userSubscriptions = recipients.apply(userId);
+                if (userSubscriptions == null || userSubscriptions.isEmpty()) {
+                    continue;
+                }
+
+                UserDTO snapshot = snapshots.get(userId);
+                Set<DataWithMediaType> event = snapshot == null ? deletedEvent(userId) : userEvent(snapshot);
+                userSubscriptions.forEach(subscription -> send(subscription, event));
+            }
+        }
+    }
+
+    // the version is the event id, clients drop snapshots they've already seen by it
+    private Set<DataWithMediaType> userEvent(UserDTO user) {
+        try {
+            return SseEmitter.event()
+                    .name(USER_EVENT)
+                    .id(String.valueOf(user.getVersion()))
+                    .data(objectMapper.writeValueAsString(user), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Set<DataWithMediaType> deletedEvent(UUID userId) {
+        return SseEmitter.event()
+                .name(DELETED_EVENT)
+                .data(userId.toString())
+                .build();
+    }
+
+    /*
+    Called by the dispatcher only, so every subscriber gets its events in order.
+    A subscriber whose queue is full is this far behind because it stopped reading,
+    it's dropped rather than buffered without bound
+    */
+    private void send(Subscription subscription, Set<DataWithMediaType> event) {
+        if (!subscription.getPendingEvents().offer(event)) {
+            unsubscribe(subscription);
+            // the emitter is locked by the blocked write, its sender completes it afterwards
+            subscription.getDropped().set(true);
+            return;
+        }
+
+        if (subscription.getDraining().compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscription));
+        }
+    }
+
+    /*
+    Writes are blocking servlet writes: a subscriber that stops reading holds a sender thread
+    at most until the connector's write timeout, after that it's dropped like a closed one
+    */
+    private void drain(Subscription subscription) {
+        BlockingQueue<Set<DataWithMediaType>> pendingEvents = subscription.getPendingEvents();
+        do {
+            Set<DataWithMediaType> event;
+            while ((event = pendingEvents.poll()) != null) {
+                if (subscription.getDropped().get()) {
+                    subscription.getEmitter().complete();
+                    return;
+                }
+                try {
+                    subscription.getEmitter().send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // the client is gone or the request already timed out
+                    unsubscribe(subscription);
+                    return;
+                }
+            }
+            subscription.getDraining().set(false);
+            // an event queued after the last poll would otherwise wait for the next one
+        } while (!pendingEvents.isEmpty() && subscription.getDraining().compareAndSet(false, true));
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (!subscriptions.remove(subscription)) {
+            return;
+        }
+
+        for (UUID userId : subscription.getUserIds()) {
+            subscriptionsByUser.computeIfPresent(userId, (subscribedUserId, userSubscriptions) -> {
+                userSubscriptions.remove(subscription);
+
+                return userSubscriptions.isEmpty() ? null : userSubscriptions;
+            });
+        }
+    }
+
+    private static Thread daemonThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+
+        return thread;
+    }
+
+    // equal only to itself, the subscriber sets tell subscriptions apart by identity
+    @Getter
+    private static class Subscription {
+
+        private final SseEmitter emitter;
+        private final Set<UUID> userIds;
+        private final BlockingQueue<Set<DataWithMediaType>> pendingEvents;
+        // set while a sender writes the queue out, so one subscriber never has two
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean dropped = new AtomicBoolean();
+
+        private Subscription(
+                SseEmitter emitter,
+                Set<UUID> userIds,
+                int queueCapacity
+        ) {
+            this.emitter = emitter;
+            this.userIds = userIds;
+            this.pendingEvents = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.clearsolutionspracticalassigment.ingestion;
+
+import com.example.clearsolutionspracticalassigment.controller.payload.CreateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.dto.UserCreationDTO;
+
+import java.util.UUID;
+
+public interface UserWriteBehind {
+
+    // validates and queues the user, it's stored by a later batch under the returned id
+    UserCreationDTO accept(CreateUserRequestPayload creationData);
+
+    UserCreationDTO getCreation(UUID userId);
+}
@@ -0,0 +1,265 @@
+package com.example.clearsolutionspracticalassigment.ingestion;
+
+import com.example.clearsolutionspracticalassigment.controller.payload.CreateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.dto.BatchItemResultDTO;
+import com.example.clearsolutionspracticalassigment.dto.UserCreationDTO;
+import com.example.clearsolutionspracticalassigment.exception.InvalidArgumentException;
+import com.example.clearsolutionspracticalassigment.exception.NotFoundException;
+import com.example.clearsolutionspracticalassigment.exception.ServiceUnavailableException;
+import com.example.clearsolutionspracticalassigment.exception.TooManyRequestsException;
+import com.example.clearsolutionspracticalassigment.repository.UserRepository;
+import com.example.clearsolutionspracticalassigment.service.UserEmails;
+import com.example.clearsolutionspracticalassigment.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+Accepted users wait in a bounded queue for the flusher thread, which stores whatever
+has queued up in one createUsers call: one multi-row insert and one commit for the whole batch.
+Batches grow on their own while the previous commit is in flight, there's no extra wait for them.
+Queued users live only in memory, a node that dies loses them
+*/
+@Component
+@ConditionalOnProperty(name = "ingestion.user.writeBehind.enabled", havingValue = "true")
+@Slf4j
+public class UserWriteBehindImpl implements UserWriteBehind, SmartLifecycle {
+
+    private static final String QUEUE_FULL_MESSAGE = "Too many pending user creations: retry later";
+    private static final String NOT_FOUND_MESSAGE = "Given invalid user id: no user creations with such id";
+    private static final String STORE_FAILURE_MESSAGE = "User couldn't be stored: the creation can be requested again";
+    private static final String STOPPED_MESSAGE = "User creations aren't accepted: the node is shutting down";
+
+    // bounds how long the flusher waits before it checks whether it's still running
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    // how long stop() waits for the queue to drain
+    private static final long STOP_TIMEOUT_MILLIS = 30_000;
+
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final int batchSize;
+    private final BlockingQueue<PendingCreation> pendingCreations;
+    // a queued user's email is taken for everyone else, the unique index only sees it after the flush
+    private final Map<String, UUID> reservedEmails = new ConcurrentHashMap<>();
+    private final Cache<UUID, UserCreationDTO> creations;
+
+    private volatile boolean running;
+    private Thread flusherThread;
+
+    public UserWriteBehindImpl(
+            UserService userService,
+            UserRepository userRepository,
+            @Value("${ingestion.user.writeBehind.queueCapacity}") int queueCapacity,
+            @Value("${ingestion.user.writeBehind.batchSize}") int batchSize,
+            @Value("${ingestion.user.writeBehind.outcomeRetention}") Duration outcomeRetention,
+            @Value("${ingestion.user.writeBehind.outcomeMaximumSize}") long outcomeMaximumSize
+    ) {
+        this.userService = userService;
+        this.userRepository = userRepository;
+        this.batchSize = batchSize;
+        this.pendingCreations = new ArrayBlockingQueue<>(queueCapacity);
+        // a burst of accepted creations can't hold more outcomes than this until they expire
+        this.creations = Caffeine.newBuilder()
+                .maximumSize(outcomeMaximumSize)
+                .expireAfterWrite(outcomeRetention)
+                .build();
+    }
+
+    @Override
+    public UserCreationDTO accept(CreateUserRequestPayload creationData) {
+        // the flusher may already have drained the queue for the last time
+        if (!running) {
+            throw new ServiceUnavailableException(STOPPED_MESSAGE);
+        }
+        userService.validateCreationData(creationData);
+
+        UUID userId = UUID.randomUUID();
+        String emailKey = UserEmails.key(creationData.getEmail());
+        if (reservedEmails.putIfAbsent(emailKey, userId) != null) {
+            throw new InvalidArgumentException(UserEmails.TAKEN_EMAIL_MESSAGE);
+        }
+
+        // recorded before queueing, so the flusher's outcome can't be overwritten by it
+        UserCreationDTO acceptedCreation = creation(userId, HttpStatus.ACCEPTED, null);
+        creations.put(userId, acceptedCreation);
+        if (!pendingCreations.offer(new PendingCreation(userId, emailKey, creationData))) {
+            creations.invalidate(userId);
+            reservedEmails.remove(emailKey, userId);
+            throw new TooManyRequestsException(QUEUE_FULL_MESSAGE);
+        }
+
+        return acceptedCreation;
+    }
+
+    /*
+    Outcomes are kept only for outcomeRetention and only by the node that accepted the request,
+    a stored user is reported as created by any node after that
+    */
+    @Override
+    public UserCreationDTO getCreation(UUID userId) {
+        UserCreationDTO creation = creations.getIfPresent(userId);
+        if (creation != null) {
+            return creation;
+        }
+        if (userRepository.existsByUuid(userId)) {
+            return creation(userId, HttpStatus.CREATED, null);
+        }
+
+        throw new NotFoundException(NOT_FOUND_MESSAGE);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusherThread = new Thread(this::flush, "user-write-behind-flusher");
+        flusherThread.start();
+    }
+
+    // whatever is queued when the graceful shutdown of the web server is over still gets stored
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            flusherThread.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!pendingCreations.isEmpty()) {
+            log.warn("Stopped with unsaved user creations: {}", pendingCreations.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stops once requests in flight are done, the ones that still get here are rejected
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1;
+    }
+
+    private void flush() {
+        while (running || !pendingCreations.isEmpty()) {
+            try {
+                PendingCreation firstCreation = pendingCreations.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (firstCreation != null) {
+                    List<PendingCreation> batch = new ArrayList<>(batchSize);
+                    batch.add(firstCreation);
+                    pendingCreations.drainTo(batch, batchSize - 1);
+                    store(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // package-private for tests, they store batches without the flusher thread
+    void store(List<PendingCreation> batch) {
+        List<BatchItemResultDTO> results;
+        try {
+            results = userService.createUsers(
+                    batch.stream().map(PendingCreation::getCreationData).toList(),
+                    batch.stream().map(PendingCreation::getUserId).toList()
+            );
+        } catch (RuntimeException e) {
+            // an email taken by a synchronous creation meanwhile rolls back the whole batch
+            if (isConstraintViolation(e)) {
+                results = batch.stream()
+                        .map(this::storeAlone)
+                        .toList();
+            } else {
+                log.warn("Failed to store user creations: {}, {}", batch.size(), e.getMessage());
+                results = batch.stream()
+                        .map(creation -> failedResult())
+                        .toList();
+            }
+        }
+
+        for (int index = 0; index < batch.size(); index++) {
+            PendingCreation creation = batch.get(index);
+            BatchItemResultDTO result = results.get(index);
+            creations.put(creation.getUserId(), creation(creation.getUserId(), result.getStatus(), result.getMessages()));
+            reservedEmails.remove(creation.getEmailKey(), creation.getUserId());
+        }
+    }
+
+    private BatchItemResultDTO storeAlone(PendingCreation creation) {
+        try {
+            return userService.createUsers(List.of(creation.getCreationData()), List.of(creation.getUserId())).get(0);
+        } catch (RuntimeException e) {
+            // lost the race for the email once more, between the check and the insert
+            if (isConstraintViolation(e)) {
+                return BatchItemResultDTO.builder()
+                        .status(HttpStatus.BAD_REQUEST)
+                        .messages(List.of(UserEmails.TAKEN_EMAIL_MESSAGE))
+                        .build();
+            }
+            log.warn("Failed to store user creation: {}", e.getMessage());
+
+            return failedResult();
+        }
+    }
+
+    /*
+    The flush of a batch insert goes through the entity manager, not a repository,
+    so its violation arrives untranslated, as hibernate's exception
+    */
+    private static boolean isConstraintViolation(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException || cause instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static BatchItemResultDTO failedResult() {
+        return BatchItemResultDTO.builder()
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .messages(List.of(STORE_FAILURE_MESSAGE))
+                .build();
+    }
+
+    private static UserCreationDTO creation(UUID userId, HttpStatus status, List<String> messages) {
+        return UserCreationDTO.builder()
+                .uuid(userId)
+                .status(status)
+                .messages(messages)
+                .build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class PendingCreation {
+
+        private final UUID userId;
+        private final String emailKey;
+        private final CreateUserRequestPayload creationData;
+    }
+}
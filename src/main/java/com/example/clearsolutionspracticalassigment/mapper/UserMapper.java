@@ -3,6 +3,7 @@ package com.example.clearsolutionspracticalassigment.mapper;
 import com.example.clearsolutionspracticalassigment.dto.UserDTO;
 import com.example.clearsolutionspracticalassigment.entity.User;
 
+// used by the write paths, read queries select UserDTO directly
 public interface UserMapper {
 
     UserDTO mapUserToUserDTO(User user);
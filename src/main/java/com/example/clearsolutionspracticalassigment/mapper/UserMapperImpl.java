@@ -17,6 +17,7 @@ public class UserMapperImpl implements UserMapper {
                 .birthDate(user.getBirthDate())
                 .address(user.getAddress())
                 .phoneNumber(user.getPhoneNumber())
+                .version(user.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,6 @@
+package com.example.clearsolutionspracticalassigment.metrics;
+
+public interface ClientErrorLog {
+
+    void record(String reason, Exception exception);
+}
@@ -0,0 +1,57 @@
+package com.example.clearsolutionspracticalassigment.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Rejected requests are counted per reason and reported in one line per reportInterval,
+so a client hammering stale ids costs a counter increment instead of a logged stack trace.
+Single rejections with their traces are still there at DEBUG
+*/
+@Component
+@Slf4j
+public class ClientErrorLogImpl implements ClientErrorLog {
+
+    private final long reportIntervalNanos;
+    private final ConcurrentMap<String, ReasonReport> reports = new ConcurrentHashMap<>();
+
+    public ClientErrorLogImpl(@Value("${clientErrors.log.reportInterval}") Duration reportInterval) {
+        this.reportIntervalNanos = reportInterval.toNanos();
+    }
+
+    @Override
+    public void record(String reason, Exception exception) {
+        ReasonReport report = reports.computeIfAbsent(reason, ignored -> new ReasonReport(System.nanoTime()));
+        report.count.increment();
+
+        long now = System.nanoTime();
+        long nextReportAt = report.nextReportAt.get();
+        // only the thread winning the CAS reports, the others just counted
+        if (now - nextReportAt >= 0 && report.nextReportAt.compareAndSet(nextReportAt, now + reportIntervalNanos)) {
+            log.warn(
+                    "Rejected {} requests as {} since the last report, latest: {}",
+                    report.count.sumThenReset(), reason, exception.getMessage()
+            );
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(exception.getMessage(), exception);
+        }
+    }
+
+    private static final class ReasonReport {
+
+        private final LongAdder count = new LongAdder();
+        private final AtomicLong nextReportAt;
+
+        private ReasonReport(long firstReportAt) {
+            this.nextReportAt = new AtomicLong(firstReportAt);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.clearsolutionspracticalassigment.metrics;
+
+public interface UserMetrics {
+
+    void recordPageSize(int usersCount);
+
+    void recordStreamedUsers(long usersCount);
+
+    void countValidationFailure();
+
+    void countInvalidArgument();
+
+    void countNotFound();
+
+    void countPreconditionFailed();
+
+    void countTooManyRequests();
+
+    void countOverloaded();
+}
@@ -0,0 +1,94 @@
+package com.example.clearsolutionspracticalassigment.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/*
+Meters are registered once, so recording stays a plain increment.
+Range sizes are a distribution rather than a gauge:
+concurrent requests would keep overwriting the single value of a gauge
+*/
+@Component
+public class UserMetricsImpl implements UserMetrics {
+
+    private static final String RANGE_RESULTS_METER = "user.range.results";
+    private static final String REQUEST_FAILURES_METER = "user.request.failures";
+
+    private final DistributionSummary pageSizes;
+    private final DistributionSummary streamedUsers;
+    private final Counter validationFailures;
+    private final Counter invalidArguments;
+    private final Counter notFounds;
+    private final Counter preconditionFailures;
+    private final Counter tooManyRequests;
+    private final Counter overloads;
+
+    public UserMetricsImpl(MeterRegistry meterRegistry) {
+        this.pageSizes = rangeResults("page", meterRegistry);
+        this.streamedUsers = rangeResults("stream", meterRegistry);
+        this.validationFailures = requestFailures("validation", meterRegistry);
+        this.invalidArguments = requestFailures("invalid_argument", meterRegistry);
+        this.notFounds = requestFailures("not_found", meterRegistry);
+        this.preconditionFailures = requestFailures("precondition_failed", meterRegistry);
+        this.tooManyRequests = requestFailures("too_many_requests", meterRegistry);
+        this.overloads = requestFailures("overloaded", meterRegistry);
+    }
+
+    @Override
+    public void recordPageSize(int usersCount) {
+        pageSizes.record(usersCount);
+    }
+
+    @Override
+    public void recordStreamedUsers(long usersCount) {
+        streamedUsers.record(usersCount);
+    }
+
+    @Override
+    public void countValidationFailure() {
+        validationFailures.increment();
+    }
+
+    @Override
+    public void countInvalidArgument() {
+        invalidArguments.increment();
+    }
+
+    @Override
+    public void countNotFound() {
+        notFounds.increment();
+    }
+
+    @Override
+    public void countPreconditionFailed() {
+        preconditionFailures.increment();
+    }
+
+    @Override
+    public void countTooManyRequests() {
+        tooManyRequests.increment();
+    }
+
+    @Override
+    public void countOverloaded() {
+        overloads.increment();
+    }
+
+    private static DistributionSummary rangeResults(String delivery, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder(RANGE_RESULTS_METER)
+                .description("Users returned by one birth date range query")
+                .baseUnit("users")
+                .tag("delivery", delivery)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter requestFailures(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder(REQUEST_FAILURES_METER)
+                .description("Requests rejected by UserControllerAdvice")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.clearsolutionspracticalassigment.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// appends entries as NDJSON lines and forces them to disk before the relay removes them from the outbox
+public class FileUserChangeSink implements UserChangeSink {
+
+    private static final byte LINE_SEPARATOR = '\n';
+
+    private final ObjectWriter entryWriter;
+    private final Path file;
+
+    public FileUserChangeSink(
+            ObjectMapper objectMapper,
+            Path file
+    ) {
+        this.entryWriter = objectMapper.writerFor(UserOutboxEntry.class);
+        this.file = file;
+    }
+
+    @Override
+    public void publish(List<UserOutboxEntry> entries) {
+        try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, APPEND)) {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            for (UserOutboxEntry entry : entries) {
+                entryWriter.writeValue(lines, entry);
+                lines.write(LINE_SEPARATOR);
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.clearsolutionspracticalassigment.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// a broker inside the JVM for tests and local runs, consumers drain what the relay delivered
+public class InMemoryUserChangeSink implements UserChangeSink {
+
+    private final BlockingQueue<UserOutboxEntry> entries = new LinkedBlockingQueue<>();
+
+    @Override
+    public void publish(List<UserOutboxEntry> entries) {
+        this.entries.addAll(entries);
+    }
+
+    public List<UserOutboxEntry> drain() {
+        List<UserOutboxEntry> drainedEntries = new ArrayList<>();
+        entries.drainTo(drainedEntries);
+
+        return drainedEntries;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.clearsolutionspracticalassigment.outbox;
+
+import java.util.List;
+
+/*
+Where the relay delivers user changes to. Entries come in outbox order and
+may be delivered again after a failure, consumers deduplicate by entry id
+*/
+public interface UserChangeSink {
+
+    // must have delivered every entry once it returns, throwing makes the relay retry the batch
+    void publish(List<UserOutboxEntry> entries);
+}
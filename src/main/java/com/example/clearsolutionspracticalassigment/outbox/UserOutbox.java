@@ -0,0 +1,23 @@
+package com.example.clearsolutionspracticalassigment.outbox;
+
+import com.example.clearsolutionspracticalassigment.event.UserChangeType;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserOutbox {
+
+    // joins the current transaction, the entries commit or roll back with the change itself
+    void append(UserChangeType type, Collection<UUID> userIds);
+
+    /*
+    The three methods below are meant for one relay transaction: only the node holding
+    the lock reads, so no two relays ever deliver entries of the same user in parallel
+    */
+    boolean tryLockRelay();
+
+    List<UserOutboxEntry> findOldest(int limit);
+
+    void remove(Collection<Long> entryIds);
+}
@@ -0,0 +1,22 @@
+package com.example.clearsolutionspracticalassigment.outbox;
+
+import com.example.clearsolutionspracticalassigment.event.UserChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// one row of the user_outbox table, ids grow in the order the changes of a user committed
+@Getter
+@AllArgsConstructor
+public class UserOutboxEntry {
+
+    private final long id;
+
+    private final UUID userId;
+
+    private final UserChangeType type;
+
+    private final Instant occurredAt;
+}
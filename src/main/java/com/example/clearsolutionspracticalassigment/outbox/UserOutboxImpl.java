@@ -0,0 +1,78 @@
+package com.example.clearsolutionspracticalassigment.outbox;
+
+import com.example.clearsolutionspracticalassigment.event.UserChangeType;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class UserOutboxImpl implements UserOutbox {
+
+    // any constant works as long as nothing else takes the same advisory lock
+    private static final long RELAY_LOCK_KEY = 0x7573_6572_6f75_7462L;
+
+    // one statement for a whole batch of users, however large
+    private static final String APPEND_SQL = """
+            insert into user_outbox (user_uuid, change_type)
+            select changed_uuid, ? from unnest(?) as changed_users(changed_uuid)
+            """;
+
+    private static final RowMapper<UserOutboxEntry> ENTRY_MAPPER = (resultSet, rowNumber) -> new UserOutboxEntry(
+            resultSet.getLong("id"),
+            resultSet.getObject("user_uuid", UUID.class),
+            UserChangeType.valueOf(resultSet.getString("change_type")),
+            resultSet.getTimestamp("occurred_at").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void append(
+            UserChangeType type,
+            Collection<UUID> userIds
+    ) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(APPEND_SQL);
+            statement.setString(1, type.name());
+            statement.setArray(2, connection.createArrayOf("uuid", userIds.toArray()));
+            return statement;
+        });
+    }
+
+    @Override
+    public boolean tryLockRelay() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK_KEY
+        ));
+    }
+
+    @Override
+    public List<UserOutboxEntry> findOldest(int limit) {
+        return jdbcTemplate.query(
+                "select id, user_uuid, change_type, occurred_at from user_outbox order by id limit ?",
+                ENTRY_MAPPER,
+                limit
+        );
+    }
+
+    /*
+    Removes exactly the relayed ids rather than everything up to the last one:
+    a transaction that's still open may commit a lower id after the read
+    */
+    @Override
+    public void remove(Collection<Long> entryIds) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement("delete from user_outbox where id = any(?)");
+            statement.setArray(1, connection.createArrayOf("bigint", entryIds.toArray()));
+            return statement;
+        });
+    }
+}
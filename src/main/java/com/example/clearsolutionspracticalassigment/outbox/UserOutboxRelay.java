@@ -0,0 +1,68 @@
+package com.example.clearsolutionspracticalassigment.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/*
+Moves outbox entries to the sink in batches. A batch is read, delivered and removed in one
+transaction: when anything fails, the entries stay and the next round delivers them again,
+so delivery is at least once. The advisory lock keeps one relay per cluster,
+which keeps the entries of a user in order
+*/
+@Slf4j
+public class UserOutboxRelay {
+
+    private final UserOutbox userOutbox;
+    private final UserChangeSink userChangeSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public UserOutboxRelay(
+            UserOutbox userOutbox,
+            UserChangeSink userChangeSink,
+            TransactionTemplate transactionTemplate,
+            int batchSize
+    ) {
+        this.userOutbox = userOutbox;
+        this.userChangeSink = userChangeSink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.user.relay.intervalMillis}")
+    public void relay() {
+        try {
+            int relayedCount;
+            do {
+                relayedCount = relayBatch();
+            } while (relayedCount == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("User outbox relay failed, the entries stay for the next round: {}", e.getMessage());
+        }
+    }
+
+    // returns how many entries went out, 0 also when another node holds the relay lock
+    int relayBatch() {
+        Integer relayedCount = transactionTemplate.execute(status -> {
+            if (!userOutbox.tryLockRelay()) {
+                return 0;
+            }
+
+            List<UserOutboxEntry> entries = userOutbox.findOldest(batchSize);
+            if (entries.isEmpty()) {
+                return 0;
+            }
+            userChangeSink.publish(entries);
+            userOutbox.remove(entries.stream()
+                    .map(UserOutboxEntry::getId)
+                    .toList());
+
+            return entries.size();
+        });
+
+        return relayedCount == null ? 0 : relayedCount;
+    }
+}
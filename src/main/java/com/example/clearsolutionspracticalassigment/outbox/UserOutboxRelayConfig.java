@@ -0,0 +1,44 @@
+package com.example.clearsolutionspracticalassigment.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+/*
+Every node writes the outbox, relaying can be left to some of them.
+The sink is picked by outbox.user.sink.type, "file" or "memory"
+*/
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "outbox.user.relay.enabled", havingValue = "true")
+@EnableScheduling
+public class UserOutboxRelayConfig {
+
+    @Bean
+    public UserChangeSink userChangeSink(
+            @Value("${outbox.user.sink.type}") String sinkType,
+            @Value("${outbox.user.sink.file.path}") Path sinkFile,
+            ObjectMapper objectMapper
+    ) {
+        return switch (sinkType) {
+            case "file" -> new FileUserChangeSink(objectMapper, sinkFile);
+            case "memory" -> new InMemoryUserChangeSink();
+            default -> throw new IllegalArgumentException("Unknown user change sink type: " + sinkType);
+        };
+    }
+
+    @Bean
+    public UserOutboxRelay userOutboxRelay(
+            UserOutbox userOutbox,
+            UserChangeSink userChangeSink,
+            TransactionTemplate transactionTemplate,
+            @Value("${outbox.user.relay.batchSize}") int batchSize
+    ) {
+        return new UserOutboxRelay(userOutbox, userChangeSink, transactionTemplate, batchSize);
+    }
+}
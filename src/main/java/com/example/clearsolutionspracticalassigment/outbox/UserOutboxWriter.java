@@ -0,0 +1,29 @@
+package com.example.clearsolutionspracticalassigment.outbox;
+
+import com.example.clearsolutionspracticalassigment.event.UserChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/*
+Records every user change in the outbox on the connection of the write transaction,
+a failing insert rolls the change back with it
+*/
+@Component
+@RequiredArgsConstructor
+public class UserOutboxWriter {
+
+    private final UserOutbox userOutbox;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void recordChangedUsers(UserChangedEvent event) {
+        // a range delete records its users in the deleting statement, see UserRepository
+        if (event.affectsUnknownUsers() || event.getUserIds().isEmpty()) {
+            return;
+        }
+
+        userOutbox.append(event.getType(), event.getUserIds());
+    }
+}
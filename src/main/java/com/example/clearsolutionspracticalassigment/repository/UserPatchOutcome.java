@@ -0,0 +1,10 @@
+package com.example.clearsolutionspracticalassigment.repository;
+
+public enum UserPatchOutcome {
+
+    PATCHED,
+    // the user matched, but already had every given value
+    UNCHANGED,
+    // there's no such user, or it isn't at the expected version
+    NOT_MATCHED
+}
@@ -1,23 +1,143 @@
 package com.example.clearsolutionspracticalassigment.repository;
 
+import com.example.clearsolutionspracticalassigment.dto.UserDTO;
 import com.example.clearsolutionspracticalassigment.entity.User;
+import com.example.clearsolutionspracticalassigment.repository.projection.UserEmailOwner;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
-    Optional<User> findByUuid(UUID uuid);
+    String STREAM_FETCH_SIZE = "1000";
 
-    Optional<User> findByEmail(String email);
+    /*
+    Read queries select straight into UserDTO: rows aren't hydrated into managed entities,
+    so they neither get dirty-checking snapshots nor stay in the persistence context
+    */
+    String SELECT_USER_DTO = """
+            select new com.example.clearsolutionspracticalassigment.dto.UserDTO(
+                u.uuid, u.email, u.firstName, u.lastName, u.birthDate, u.address, u.phoneNumber
+            )
+            from User u
+            """;
 
-    List<User> findAllByBirthDateBetween(LocalDate birthDateFrom, LocalDate birthDateTo);
+    // selects the version too, it becomes the ETag of the user
+    String SELECT_VERSIONED_USER_DTO = """
+            select new com.example.clearsolutionspracticalassigment.dto.UserDTO(
+                u.uuid, u.email, u.firstName, u.lastName, u.birthDate, u.address, u.phoneNumber, u.version
+            )
+            from User u
+            """;
+
+    /*
+    Emails are unique regardless of case: lookups compare lower(email), which the
+    users_email_lower_key index serves. Email can't be a second natural id,
+    so this lookup goes through the query cache instead
+    */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("select u from User u where lower(u.email) = lower(:email)")
+    Optional<User> findByEmail(@Param("email") String email);
+
+    // expects lower-cased emails and returns them lower-cased
+    @Query("select lower(u.email) from User u where lower(u.email) in :emails")
+    List<String> findAllEmailsByEmailIn(@Param("emails") Collection<String> emails);
+
+    // expects lower-cased emails and returns them lower-cased
+    @Query("select u.uuid as uuid, lower(u.email) as email from User u where lower(u.email) in :emails")
+    List<UserEmailOwner> findAllEmailOwnersByEmailIn(@Param("emails") Collection<String> emails);
+
+    @Query(SELECT_VERSIONED_USER_DTO + "where u.uuid = :uuid")
+    Optional<UserDTO> findUserDTOByUuid(@Param("uuid") UUID uuid);
+
+    // snapshots for the change feed, the versions become the ids of its events
+    @Query(SELECT_VERSIONED_USER_DTO + "where u.uuid in :uuids")
+    List<UserDTO> findAllUserDTOsByUuidIn(@Param("uuids") Collection<UUID> uuids);
 
     boolean existsByUuid(UUID uuid);
 
-    void deleteByUuid(UUID uuid);
+    @Query(SELECT_USER_DTO + """
+            where u.birthDate between :birthDateFrom and :birthDateTo
+            order by u.birthDate, u.uuid
+            """)
+    List<UserDTO> findAllByBirthDateBetween(
+            @Param("birthDateFrom") LocalDate birthDateFrom,
+            @Param("birthDateTo") LocalDate birthDateTo,
+            Pageable pageable
+    );
+
+    /*
+    Keyset continuation of the query above: seeks straight to the row after
+    (cursorBirthDate, cursorUuid), so page N costs the same as the first one
+    */
+    @Query(SELECT_USER_DTO + """
+            where u.birthDate between :cursorBirthDate and :birthDateTo
+              and (u.birthDate > :cursorBirthDate or u.uuid > :cursorUuid)
+            order by u.birthDate, u.uuid
+            """)
+    List<UserDTO> findAllByBirthDateBetweenAfterCursor(
+            @Param("cursorBirthDate") LocalDate cursorBirthDate,
+            @Param("cursorUuid") UUID cursorUuid,
+            @Param("birthDateTo") LocalDate birthDateTo,
+            Pageable pageable
+    );
+
+    /*
+    Must be consumed inside a transaction: the fetch size makes the driver
+    read rows through a server-side cursor instead of buffering the whole result
+    */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_USER_DTO + """
+            where u.birthDate between :birthDateFrom and :birthDateTo
+            order by u.birthDate, u.uuid
+            """)
+    Stream<UserDTO> streamAllByBirthDateBetween(
+            @Param("birthDateFrom") LocalDate birthDateFrom,
+            @Param("birthDateTo") LocalDate birthDateTo
+    );
+
+    @Modifying
+    @Query("delete from User u where u.uuid = :uuid")
+    int deleteByUuid(@Param("uuid") UUID uuid);
+
+    /*
+    Removes at most chunkSize users of the range in its own transaction,
+    callers repeat it until fewer rows than chunkSize are affected.
+    The same statement records the deleted users in the outbox (see UserOutboxWriter),
+    the count is that of the outbox rows, one per deleted user
+    */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            with deleted_users as (
+                delete from users
+                where id in (
+                    select id from users
+                    where birth_date between :birthDateFrom and :birthDateTo
+                    limit :chunkSize
+                )
+                returning uuid
+            )
+            insert into user_outbox (user_uuid, change_type)
+            select uuid, 'DELETED' from deleted_users
+            """, nativeQuery = true)
+    int deleteChunkByBirthDateBetween(
+            @Param("birthDateFrom") LocalDate birthDateFrom,
+            @Param("birthDateTo") LocalDate birthDateTo,
+            @Param("chunkSize") int chunkSize
+    );
 }
@@ -0,0 +1,40 @@
+package com.example.clearsolutionspracticalassigment.repository;
+
+import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.controller.payload.UpdateUserRequestPayload;
+
+import com.example.clearsolutionspracticalassigment.entity.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserRepositoryCustom {
+
+    /*
+    Resolves users through the session's natural-id API, so they're served
+    by the natural-id and entity caches when the second-level cache is on.
+    Missing users are left out of the result, which isn't in the order of uuids
+    */
+    List<User> findAllByNaturalIdIn(Collection<UUID> uuids);
+
+    /*
+    Both methods issue a single UPDATE keyed on uuid without loading the user.
+    A non-null expectedVersion makes the UPDATE conditional on it, the way Hibernate
+    checks versions itself. The update returns the number of affected rows,
+    so 0 means there is no such user or it has been changed since
+    */
+    int updateByUuid(UUID uuid, UpdateUserRequestPayload updatedData, Long expectedVersion);
+
+    /*
+    The patch only touches a user some given value differs for, so a no-op patch keeps the version.
+    When nothing is updated, a count tells an unchanged user from a missing one
+    */
+    UserPatchOutcome patchByUuid(UUID uuid, PatchUserRequestPayload updatedData, Long expectedVersion);
+
+    /*
+    Deletes the users in one statement and returns the uuids of the rows it removed,
+    uuids of users that didn't exist are left out
+    */
+    List<UUID> deleteAllByUuidIn(Collection<UUID> uuids);
+}
@@ -0,0 +1,157 @@
+package com.example.clearsolutionspracticalassigment.repository;
+
+import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.controller.payload.UpdateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.entity.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    // keeps the IN lists of a multi-load as short as the ones of the derived queries
+    private static final int NATURAL_ID_BATCH_SIZE = 1000;
+    private static final String DELETE_RETURNING_UUID_SQL =
+            "delete from users where uuid in (:uuids) returning uuid";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<User> findAllByNaturalIdIn(Collection<UUID> uuids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleNaturalId(User.class)
+                .withBatchSize(NATURAL_ID_BATCH_SIZE)
+                // hibernate can't keep the order once some users come from the second-level cache
+                .enableOrderedReturn(false)
+                .multiLoad(List.copyOf(uuids))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public int updateByUuid(
+            UUID uuid,
+            UpdateUserRequestPayload updatedData,
+            Long expectedVersion
+    ) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = criteriaBuilder.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+
+        update.set(user.<String>get("email"), updatedData.getEmail())
+                .set(user.<String>get("firstName"), updatedData.getFirstName())
+                .set(user.<String>get("lastName"), updatedData.getLastName())
+                .set(user.get("birthDate"), updatedData.getBirthDate())
+                .set(user.<String>get("address"), updatedData.getAddress())
+                .set(user.<String>get("phoneNumber"), updatedData.getPhoneNumber())
+                .set(user.<Long>get("version"), criteriaBuilder.sum(user.<Long>get("version"), 1L))
+                .where(matchesUser(criteriaBuilder, user, uuid, expectedVersion));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public UserPatchOutcome patchByUuid(
+            UUID uuid,
+            PatchUserRequestPayload updatedData,
+            Long expectedVersion
+    ) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = criteriaBuilder.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+
+        List<Predicate> changes = new ArrayList<>();
+        setIfPresent(criteriaBuilder, update, user, "email", updatedData.getEmail(), changes);
+        setIfPresent(criteriaBuilder, update, user, "firstName", updatedData.getFirstName(), changes);
+        setIfPresent(criteriaBuilder, update, user, "lastName", updatedData.getLastName(), changes);
+        setIfPresent(criteriaBuilder, update, user, "birthDate", updatedData.getBirthDate(), changes);
+        setIfPresent(criteriaBuilder, update, user, "address", updatedData.getAddress(), changes);
+        setIfPresent(criteriaBuilder, update, user, "phoneNumber", updatedData.getPhoneNumber(), changes);
+
+        // an UPDATE can't have an empty SET clause, existence still decides the response
+        if (!changes.isEmpty()) {
+            update.set(user.<Long>get("version"), criteriaBuilder.sum(user.<Long>get("version"), 1L))
+                    .where(
+                            matchesUser(criteriaBuilder, user, uuid, expectedVersion),
+                            criteriaBuilder.or(changes.toArray(Predicate[]::new))
+                    );
+            if (entityManager.createQuery(update).executeUpdate() > 0) {
+                return UserPatchOutcome.PATCHED;
+            }
+        }
+
+        CriteriaQuery<Long> count = criteriaBuilder.createQuery(Long.class);
+        Root<User> countedUser = count.from(User.class);
+        count.select(criteriaBuilder.count(countedUser))
+                .where(matchesUser(criteriaBuilder, countedUser, uuid, expectedVersion));
+
+        return entityManager.createQuery(count).getSingleResult() > 0
+                ? UserPatchOutcome.UNCHANGED
+                : UserPatchOutcome.NOT_MATCHED;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<UUID> deleteAllByUuidIn(Collection<UUID> uuids) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        // the cleanup hibernate schedules for a JPQL delete, the native one bypasses it
+        BulkOperationCleanupAction.schedule(
+                session,
+                session.getFactory().getMappingMetamodel().getEntityDescriptor(User.class)
+        );
+
+        return entityManager.createNativeQuery(DELETE_RETURNING_UUID_SQL, UUID.class)
+                .setParameter("uuids", uuids)
+                .getResultList();
+    }
+
+    private static Predicate matchesUser(
+            CriteriaBuilder criteriaBuilder,
+            Root<User> user,
+            UUID uuid,
+            Long expectedVersion
+    ) {
+        Predicate uuidMatches = criteriaBuilder.equal(user.get("uuid"), uuid);
+        if (expectedVersion == null) {
+            return uuidMatches;
+        }
+
+        return criteriaBuilder.and(uuidMatches, criteriaBuilder.equal(user.get("version"), expectedVersion));
+    }
+
+    // sets the given value and records a predicate telling whether it differs from the current one
+    private static <T> void setIfPresent(
+            CriteriaBuilder criteriaBuilder,
+            CriteriaUpdate<User> update,
+            Root<User> user,
+            String attributeName,
+            T value,
+            List<Predicate> changes
+    ) {
+        if (value == null) {
+            return;
+        }
+
+        update.set(user.<T>get(attributeName), value);
+        changes.add(criteriaBuilder.or(
+                criteriaBuilder.isNull(user.get(attributeName)),
+                criteriaBuilder.notEqual(user.get(attributeName), value)
+        ));
+    }
+}
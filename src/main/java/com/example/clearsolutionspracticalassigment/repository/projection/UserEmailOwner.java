@@ -0,0 +1,10 @@
+package com.example.clearsolutionspracticalassigment.repository.projection;
+
+import java.util.UUID;
+
+public interface UserEmailOwner {
+
+    UUID getUuid();
+
+    String getEmail();
+}
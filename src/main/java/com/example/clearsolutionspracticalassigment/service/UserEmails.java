@@ -0,0 +1,20 @@
+package com.example.clearsolutionspracticalassigment.service;
+
+import java.util.Locale;
+
+/*
+How emails are told apart: every check that runs before the unique index sees a write
+uses this, so they agree with the database and with each other
+*/
+public final class UserEmails {
+
+    public static final String TAKEN_EMAIL_MESSAGE = "Invalid email: given email is already taken";
+
+    private UserEmails() {
+    }
+
+    // same folding as the lower(email) unique index
+    public static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
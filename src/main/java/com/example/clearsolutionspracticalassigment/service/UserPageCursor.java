@@ -0,0 +1,50 @@
+package com.example.clearsolutionspracticalassigment.service;
+
+import com.example.clearsolutionspracticalassigment.exception.InvalidArgumentException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+
+/*
+Keyset position inside a birth date range listing.
+Encoded as url-safe base64 of "birthDate_uuid" so clients treat it as opaque.
+*/
+@Getter
+@AllArgsConstructor
+class UserPageCursor {
+
+    private static final String SEPARATOR = "_";
+
+    private final LocalDate birthDate;
+
+    private final UUID uuid;
+
+    String encode() {
+        String rawCursor = birthDate + SEPARATOR + uuid;
+
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(rawCursor.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static UserPageCursor decode(String cursor) {
+        try {
+            String rawCursor = new String(
+                    Base64.getUrlDecoder().decode(cursor),
+                    StandardCharsets.US_ASCII
+            );
+            int separatorIndex = rawCursor.indexOf(SEPARATOR);
+
+            return new UserPageCursor(
+                    LocalDate.parse(rawCursor.substring(0, separatorIndex)),
+                    UUID.fromString(rawCursor.substring(separatorIndex + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new InvalidArgumentException("Invalid cursor: given cursor is malformed");
+        }
+    }
+}
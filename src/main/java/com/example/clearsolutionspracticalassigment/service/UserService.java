@@ -1,28 +1,59 @@
 package com.example.clearsolutionspracticalassigment.service;
 
 import com.example.clearsolutionspracticalassigment.controller.payload.CreateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserBatchItemRequestPayload;
 import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.dto.BatchDeleteResultDTO;
+import com.example.clearsolutionspracticalassigment.dto.BatchItemResultDTO;
 import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+import com.example.clearsolutionspracticalassigment.dto.UserPageDTO;
 import com.example.clearsolutionspracticalassigment.controller.payload.UpdateUserRequestPayload;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface UserService {
 
     UserDTO createUser(CreateUserRequestPayload creationData);
 
-    void updateUser(UUID userId, UpdateUserRequestPayload updatedData);
+    List<BatchItemResultDTO> createUsers(List<CreateUserRequestPayload> creationData);
 
-    void patchUser(UUID userId, PatchUserRequestPayload updatedData);
+    // each user is stored under the id at the same position, write-behind creation hands them out early
+    List<BatchItemResultDTO> createUsers(List<CreateUserRequestPayload> creationData, List<UUID> userIds);
+
+    // the checks of createUser that don't need the database
+    void validateCreationData(CreateUserRequestPayload creationData);
+
+    // a null expectedVersion writes unconditionally
+    void updateUser(UUID userId, UpdateUserRequestPayload updatedData, Long expectedVersion);
+
+    void patchUser(UUID userId, PatchUserRequestPayload updatedData, Long expectedVersion);
+
+    List<BatchItemResultDTO> patchUsers(List<PatchUserBatchItemRequestPayload> patches);
 
     void deleteUser(UUID userId);
 
-    UserDTO getUserById(UUID userId);
+    BatchDeleteResultDTO deleteUsers(List<UUID> userIds);
 
-    List<UserDTO> findAllUsersByBirthDateBetween(
+    BatchDeleteResultDTO deleteAllUsersByBirthDateBetween(
             LocalDate birthDateFrom,
             LocalDate birthDateTo
     );
+
+    UserDTO getUserById(UUID userId);
+
+    UserPageDTO findAllUsersByBirthDateBetween(
+            LocalDate birthDateFrom,
+            LocalDate birthDateTo,
+            String cursor,
+            int limit
+    );
+
+    void streamAllUsersByBirthDateBetween(
+            LocalDate birthDateFrom,
+            LocalDate birthDateTo,
+            Consumer<UserDTO> userConsumer
+    );
 }
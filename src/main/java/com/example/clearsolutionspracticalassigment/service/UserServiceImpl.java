@@ -1,145 +1,517 @@
 package com.example.clearsolutionspracticalassigment.service;
 
+import com.example.clearsolutionspracticalassigment.cache.UserCache;
+import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserBatchItemRequestPayload;
 import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserRequestPayload;
 import com.example.clearsolutionspracticalassigment.exception.InvalidArgumentException;
 import com.example.clearsolutionspracticalassigment.controller.payload.CreateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.dto.BatchDeleteResultDTO;
+import com.example.clearsolutionspracticalassigment.dto.BatchItemResultDTO;
 import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+import com.example.clearsolutionspracticalassigment.dto.UserPageDTO;
 import com.example.clearsolutionspracticalassigment.controller.payload.UpdateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.datasource.ReplicaRoutingDataSource;
 import com.example.clearsolutionspracticalassigment.entity.User;
+import com.example.clearsolutionspracticalassigment.event.UserChangeType;
+import com.example.clearsolutionspracticalassigment.event.UserChangedEvent;
 import com.example.clearsolutionspracticalassigment.exception.NotFoundException;
+import com.example.clearsolutionspracticalassigment.exception.PreconditionFailedException;
 import com.example.clearsolutionspracticalassigment.mapper.UserMapper;
+import com.example.clearsolutionspracticalassigment.metrics.UserMetrics;
+import com.example.clearsolutionspracticalassigment.repository.UserPatchOutcome;
 import com.example.clearsolutionspracticalassigment.repository.UserRepository;
+import com.example.clearsolutionspracticalassigment.repository.projection.UserEmailOwner;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
+// per method timers, the repository and http timers around them tell DB time from serialization time
+@Timed(value = "user.service", histogram = true)
 public class UserServiceImpl implements UserService {
 
+    private static final String NOT_FOUND_MESSAGE = "Given invalid user id: no users with such id";
+    private static final String VERSION_MISMATCH_MESSAGE =
+            "Precondition failed: the user has been changed since the given version";
+
+    // keep in line with hibernate.jdbc.batch_size
+    private static final int WRITE_BATCH_SIZE = 500;
+    // stays far below the 32767 bind parameters postgres accepts per statement
+    private static final int IN_CLAUSE_CHUNK_SIZE = 10_000;
+    private static final int RANGE_DELETE_CHUNK_SIZE = 10_000;
+
     @Value("${validation.user.minimalAge}")
     private Long minimalAge;
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final EntityManager entityManager;
+    private final UserCache userCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserMetrics userMetrics;
 
     @Override
     public UserDTO createUser(CreateUserRequestPayload creationData) {
+        long startedAt = System.nanoTime();
         validateBirthDate(creationData.getBirthDate());
         validateUniquenessOfEmail(creationData.getEmail(), null);
 
-        User user = new User(UUID.randomUUID());
-        user.setEmail(creationData.getEmail());
-        user.setFirstName(creationData.getFirstName());
-        user.setLastName(creationData.getLastName());
-        user.setBirthDate(creationData.getBirthDate());
-        user.setAddress(creationData.getAddress());
-        user.setPhoneNumber(creationData.getPhoneNumber());
-
-        User savedUser = userRepository.save(user);
-        log.info("Created user: " + savedUser.getUuid());
+        User savedUser = userRepository.save(buildUser(UUID.randomUUID(), creationData));
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.CREATED, savedUser.getUuid()));
+        logUserChange(UserChangeType.CREATED, savedUser.getUuid(), startedAt);
 
         return userMapper.mapUserToUserDTO(savedUser);
     }
 
+    @Override
+    public List<BatchItemResultDTO> createUsers(List<CreateUserRequestPayload> creationData) {
+        return createUsers(
+                creationData,
+                Stream.generate(UUID::randomUUID).limit(creationData.size()).toList()
+        );
+    }
+
+    @Override
+    public List<BatchItemResultDTO> createUsers(
+            List<CreateUserRequestPayload> creationData,
+            List<UUID> userIds
+    ) {
+        long startedAt = System.nanoTime();
+        Set<String> takenEmails = findTakenEmails(
+                creationData.stream()
+                        .map(CreateUserRequestPayload::getEmail)
+                        .map(UserEmails::key)
+                        .toList()
+        );
+
+        List<BatchItemResultDTO> results = new ArrayList<>(creationData.size());
+        List<User> pendingUsers = new ArrayList<>(WRITE_BATCH_SIZE);
+        for (int index = 0; index < creationData.size(); index++) {
+            CreateUserRequestPayload userCreationData = creationData.get(index);
+            try {
+                validateBirthDate(userCreationData.getBirthDate());
+                // also rejects emails repeated inside the batch itself
+                if (!takenEmails.add(UserEmails.key(userCreationData.getEmail()))) {
+                    throw new InvalidArgumentException(UserEmails.TAKEN_EMAIL_MESSAGE);
+                }
+            } catch (InvalidArgumentException e) {
+                results.add(failedBatchItem(index, null, HttpStatus.BAD_REQUEST, e.getMessage()));
+                continue;
+            }
+
+            User user = buildUser(userIds.get(index), userCreationData);
+            pendingUsers.add(user);
+            results.add(BatchItemResultDTO.builder()
+                    .index(index)
+                    .uuid(user.getUuid())
+                    .status(HttpStatus.CREATED)
+                    .build());
+
+            if (pendingUsers.size() == WRITE_BATCH_SIZE) {
+                writeBatch(pendingUsers);
+            }
+        }
+        writeBatch(pendingUsers);
+
+        List<UUID> createdUserIds = succeededUserIds(results, HttpStatus.CREATED);
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.CREATED, createdUserIds));
+        logUsersChange(UserChangeType.CREATED, createdUserIds.size(), startedAt);
+
+        return results;
+    }
+
+    // never reaches the database, so it doesn't open a transaction either
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void validateCreationData(CreateUserRequestPayload creationData) {
+        validateBirthDate(creationData.getBirthDate());
+    }
+
     @Override
     public void updateUser(
             UUID userId,
-            UpdateUserRequestPayload updatedData
+            UpdateUserRequestPayload updatedData,
+            Long expectedVersion
     ) {
+        long startedAt = System.nanoTime();
         validateBirthDate(updatedData.getBirthDate());
-        validateUniquenessOfEmail(updatedData.getEmail(), userId);
 
-        userRepository.findByUuid(userId).ifPresentOrElse(
-                foundUser -> {
-                    foundUser.setEmail(updatedData.getEmail());
-                    foundUser.setFirstName(updatedData.getFirstName());
-                    foundUser.setLastName(updatedData.getLastName());
-                    foundUser.setBirthDate(updatedData.getBirthDate());
-                    foundUser.setAddress(updatedData.getAddress());
-                    foundUser.setPhoneNumber(updatedData.getPhoneNumber());
-
-                    userRepository.save(foundUser);
-                    log.info("Updated user: " + userId);
-                },
-                this::logAndThrowNotFoundException
+        int updatedCount = rejectingTakenEmail(
+                () -> userRepository.updateByUuid(userId, updatedData, expectedVersion)
         );
+        if (updatedCount == 0) {
+            throwNotFoundOrVersionMismatch(userId, expectedVersion);
+        }
+
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.UPDATED, userId));
+        logUserChange(UserChangeType.UPDATED, userId, startedAt);
     }
 
     @Override
     public void patchUser(
             UUID userId,
-            PatchUserRequestPayload updatedData
+            PatchUserRequestPayload updatedData,
+            Long expectedVersion
     ) {
+        long startedAt = System.nanoTime();
         if (updatedData.getBirthDate() != null) {
             validateBirthDate(updatedData.getBirthDate());
         }
-        if (updatedData.getEmail() != null) {
-            validateUniquenessOfEmail(updatedData.getEmail(), userId);
+
+        UserPatchOutcome patchOutcome = rejectingTakenEmail(
+                () -> userRepository.patchByUuid(userId, updatedData, expectedVersion)
+        );
+        if (patchOutcome == UserPatchOutcome.NOT_MATCHED) {
+            throwNotFoundOrVersionMismatch(userId, expectedVersion);
+        }
+        // the user already had the given values, there's no change to report
+        if (patchOutcome == UserPatchOutcome.UNCHANGED) {
+            return;
         }
 
-        userRepository.findByUuid(userId).ifPresentOrElse(
-                foundUser -> {
-                    if (updatedData.getEmail() != null) {
-                        foundUser.setEmail(updatedData.getEmail());
-                    }
-                    if (updatedData.getFirstName() != null) {
-                        foundUser.setFirstName(updatedData.getFirstName());
-                    }
-                    if (updatedData.getLastName() != null) {
-                        foundUser.setLastName(updatedData.getLastName());
-                    }
-                    if (updatedData.getBirthDate() != null) {
-                        foundUser.setBirthDate(updatedData.getBirthDate());
-                    }
-                    if (updatedData.getAddress() != null) {
-                        foundUser.setAddress(updatedData.getAddress());
-                    }
-                    if (updatedData.getPhoneNumber() != null) {
-                        foundUser.setPhoneNumber(updatedData.getPhoneNumber());
-                    }
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.PATCHED, userId));
+        logUserChange(UserChangeType.PATCHED, userId, startedAt);
+    }
 
-                    userRepository.save(foundUser);
-                    log.info("Patched user: " + userId);
-                },
-                this::logAndThrowNotFoundException
-        );
+    @Override
+    public List<BatchItemResultDTO> patchUsers(List<PatchUserBatchItemRequestPayload> patches) {
+        long startedAt = System.nanoTime();
+        List<BatchItemResultDTO> results = new ArrayList<>(patches.size());
+        // emails claimed earlier in the batch stay taken for the following items
+        Map<String, UUID> emailOwners = new HashMap<>();
+        // no-op patches succeed as well, but only changed users are reported
+        List<UUID> patchedUserIds = new ArrayList<>();
+
+        for (int chunkStart = 0; chunkStart < patches.size(); chunkStart += IN_CLAUSE_CHUNK_SIZE) {
+            List<PatchUserBatchItemRequestPayload> patchesChunk = patches.subList(
+                    chunkStart, Math.min(chunkStart + IN_CLAUSE_CHUNK_SIZE, patches.size())
+            );
+
+            Map<UUID, User> foundUsers = userRepository
+                    .findAllByNaturalIdIn(patchesChunk.stream()
+                            .map(PatchUserBatchItemRequestPayload::getUuid)
+                            .collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(User::getUuid, Function.identity()));
+            userRepository
+                    .findAllEmailOwnersByEmailIn(patchesChunk.stream()
+                            .map(patch -> patch.getChanges().getEmail())
+                            .filter(Objects::nonNull)
+                            .map(UserEmails::key)
+                            .collect(Collectors.toSet()))
+                    .forEach(owner -> emailOwners.putIfAbsent(owner.getEmail(), owner.getUuid()));
+
+            for (int chunkIndex = 0; chunkIndex < patchesChunk.size(); chunkIndex++) {
+                results.add(patchBatchItem(
+                        chunkStart + chunkIndex, patchesChunk.get(chunkIndex), foundUsers, emailOwners, patchedUserIds
+                ));
+            }
+
+            // dirty users go out as JDBC update batches, then the chunk is released
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.PATCHED, patchedUserIds));
+        logUsersChange(UserChangeType.PATCHED, patchedUserIds.size(), startedAt);
+
+        return results;
     }
 
     @Override
     public void deleteUser(UUID userId) {
-        if (!userRepository.existsByUuid(userId)) {
-            logAndThrowNotFoundException();
+        long startedAt = System.nanoTime();
+        if (userRepository.deleteByUuid(userId) == 0) {
+            throwNotFoundException();
         }
 
-        userRepository.deleteByUuid(userId);
-        log.info("Deleted user: " + userId);
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.DELETED, userId));
+        logUserChange(UserChangeType.DELETED, userId, startedAt);
     }
 
     @Override
-    public UserDTO getUserById(UUID userId) {
-        AtomicReference<UserDTO> userDTO = new AtomicReference<>();
+    public BatchDeleteResultDTO deleteUsers(List<UUID> userIds) {
+        long startedAt = System.nanoTime();
+        List<UUID> deletedUserIds = new ArrayList<>();
+        for (int chunkStart = 0; chunkStart < userIds.size(); chunkStart += IN_CLAUSE_CHUNK_SIZE) {
+            deletedUserIds.addAll(userRepository.deleteAllByUuidIn(userIds.subList(
+                    chunkStart, Math.min(chunkStart + IN_CLAUSE_CHUNK_SIZE, userIds.size())
+            )));
+        }
+        // only the users that went away reach the outbox and the caches
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.DELETED, deletedUserIds));
+        logUsersChange(UserChangeType.DELETED, deletedUserIds.size(), startedAt);
+
+        return new BatchDeleteResultDTO(deletedUserIds.size());
+    }
+
+    /*
+    Runs outside of the service transaction: every chunk commits on its own,
+    so a wide range doesn't hold row locks until the last row is gone
+    */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchDeleteResultDTO deleteAllUsersByBirthDateBetween(
+            LocalDate birthDateFrom,
+            LocalDate birthDateTo
+    ) {
+        long startedAt = System.nanoTime();
+        validateBirthDateRange(birthDateFrom, birthDateTo);
+
+        long deletedCount = 0;
+        int deletedInChunk;
+        do {
+            deletedInChunk = userRepository.deleteChunkByBirthDateBetween(
+                    birthDateFrom, birthDateTo, RANGE_DELETE_CHUNK_SIZE
+            );
+            deletedCount += deletedInChunk;
+        } while (deletedInChunk == RANGE_DELETE_CHUNK_SIZE);
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.DELETED, (Collection<UUID>) null));
+        logUsersChange(UserChangeType.DELETED, deletedCount, startedAt);
+
+        return new BatchDeleteResultDTO(deletedCount);
+    }
 
-        userRepository.findByUuid(userId).ifPresentOrElse(
-                foundUser -> userDTO.set(userMapper.mapUserToUserDTO(foundUser)),
-                this::logAndThrowNotFoundException
+    @Override
+    @Transactional(readOnly = true)
+    public UserDTO getUserById(UUID userId) {
+        // cached users would otherwise stay as stale as the replica was when they got loaded
+        Optional<UserDTO> foundUser = userCache.get(
+                userId,
+                uuid -> ReplicaRoutingDataSource.readFromPrimary(
+                        () -> userRepository.findUserDTOByUuid(uuid)
+                )
         );
+        if (foundUser.isEmpty()) {
+            throwNotFoundException();
+        }
+
+        return foundUser.get();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserPageDTO findAllUsersByBirthDateBetween(
+            LocalDate birthDateFrom,
+            LocalDate birthDateTo,
+            String cursor,
+            int limit
+    ) {
+        validateBirthDateRange(birthDateFrom, birthDateTo);
+
+        // one extra row tells whether the next page exists without a count query
+        Pageable pageWithLookahead = PageRequest.ofSize(limit + 1);
+        List<UserDTO> foundUsers;
+        if (cursor == null) {
+            foundUsers = userRepository.findAllByBirthDateBetween(
+                    birthDateFrom, birthDateTo, pageWithLookahead
+            );
+        } else {
+            UserPageCursor pageCursor = UserPageCursor.decode(cursor);
+            if (pageCursor.getBirthDate().isBefore(birthDateFrom)
+                    || pageCursor.getBirthDate().isAfter(birthDateTo)) {
+                throw new InvalidArgumentException(
+                        "Invalid cursor: given cursor doesn't belong to the requested birth date range"
+                );
+            }
+
+            foundUsers = userRepository.findAllByBirthDateBetweenAfterCursor(
+                    pageCursor.getBirthDate(), pageCursor.getUuid(), birthDateTo, pageWithLookahead
+            );
+        }
+
+        List<UserDTO> pageUsers = foundUsers.size() > limit
+                ? foundUsers.subList(0, limit)
+                : foundUsers;
+
+        userMetrics.recordPageSize(pageUsers.size());
+
+        String nextCursor = null;
+        if (foundUsers.size() > limit) {
+            UserDTO lastUser = pageUsers.get(pageUsers.size() - 1);
+            nextCursor = new UserPageCursor(lastUser.getBirthDate(), lastUser.getUuid()).encode();
+        }
 
-        return userDTO.get();
+        return UserPageDTO.builder()
+                .users(pageUsers)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
-    public List<UserDTO> findAllUsersByBirthDateBetween(
+    @Transactional(readOnly = true)
+    public void streamAllUsersByBirthDateBetween(
+            LocalDate birthDateFrom,
+            LocalDate birthDateTo,
+            Consumer<UserDTO> userConsumer
+    ) {
+        validateBirthDateRange(birthDateFrom, birthDateTo);
+
+        long streamedCount = 0;
+        try (Stream<UserDTO> foundUsers = userRepository.streamAllByBirthDateBetween(birthDateFrom, birthDateTo)) {
+            Iterator<UserDTO> foundUsersIterator = foundUsers.iterator();
+            while (foundUsersIterator.hasNext()) {
+                userConsumer.accept(foundUsersIterator.next());
+                streamedCount++;
+            }
+        }
+        userMetrics.recordStreamedUsers(streamedCount);
+    }
+
+    private BatchItemResultDTO patchBatchItem(
+            int index,
+            PatchUserBatchItemRequestPayload patch,
+            Map<UUID, User> foundUsers,
+            Map<String, UUID> emailOwners,
+            List<UUID> patchedUserIds
+    ) {
+        UUID userId = patch.getUuid();
+        PatchUserRequestPayload updatedData = patch.getChanges();
+
+        User foundUser = foundUsers.get(userId);
+        if (foundUser == null) {
+            return failedBatchItem(index, userId, HttpStatus.NOT_FOUND, NOT_FOUND_MESSAGE);
+        }
+        try {
+            if (updatedData.getBirthDate() != null) {
+                validateBirthDate(updatedData.getBirthDate());
+            }
+        } catch (InvalidArgumentException e) {
+            return failedBatchItem(index, userId, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (updatedData.getEmail() != null) {
+            UUID emailOwner = emailOwners.putIfAbsent(UserEmails.key(updatedData.getEmail()), userId);
+            if (emailOwner != null && !emailOwner.equals(userId)) {
+                return failedBatchItem(index, userId, HttpStatus.BAD_REQUEST, UserEmails.TAKEN_EMAIL_MESSAGE);
+            }
+        }
+
+        if (applyPatch(foundUser, updatedData)) {
+            patchedUserIds.add(userId);
+        }
+
+        return BatchItemResultDTO.builder()
+                .index(index)
+                .uuid(userId)
+                .status(HttpStatus.NO_CONTENT)
+                .build();
+    }
+
+    private static List<UUID> succeededUserIds(
+            List<BatchItemResultDTO> results,
+            HttpStatus successStatus
+    ) {
+        return results.stream()
+                .filter(result -> result.getStatus() == successStatus)
+                .map(BatchItemResultDTO::getUuid)
+                .toList();
+    }
+
+    private static BatchItemResultDTO failedBatchItem(
+            int index,
+            UUID userId,
+            HttpStatus status,
+            String message
+    ) {
+        return BatchItemResultDTO.builder()
+                .index(index)
+                .uuid(userId)
+                .status(status)
+                .messages(List.of(message))
+                .build();
+    }
+
+    // returns whether any value of the user changed
+    private static boolean applyPatch(
+            User user,
+            PatchUserRequestPayload updatedData
+    ) {
+        boolean changed = setIfChanged(user.getEmail(), updatedData.getEmail(), user::setEmail);
+        changed |= setIfChanged(user.getFirstName(), updatedData.getFirstName(), user::setFirstName);
+        changed |= setIfChanged(user.getLastName(), updatedData.getLastName(), user::setLastName);
+        changed |= setIfChanged(user.getBirthDate(), updatedData.getBirthDate(), user::setBirthDate);
+        changed |= setIfChanged(user.getAddress(), updatedData.getAddress(), user::setAddress);
+        changed |= setIfChanged(user.getPhoneNumber(), updatedData.getPhoneNumber(), user::setPhoneNumber);
+
+        return changed;
+    }
+
+    private static <T> boolean setIfChanged(
+            T currentValue,
+            T value,
+            Consumer<T> setter
+    ) {
+        if (value == null || value.equals(currentValue)) {
+            return false;
+        }
+
+        setter.accept(value);
+        return true;
+    }
+
+    private User buildUser(UUID userId, CreateUserRequestPayload creationData) {
+        User user = new User(userId);
+        user.setEmail(creationData.getEmail());
+        user.setFirstName(creationData.getFirstName());
+        user.setLastName(creationData.getLastName());
+        user.setBirthDate(creationData.getBirthDate());
+        user.setAddress(creationData.getAddress());
+        user.setPhoneNumber(creationData.getPhoneNumber());
+
+        return user;
+    }
+
+    /*
+    Sends the pending inserts as one JDBC batch and empties the persistence context,
+    so memory doesn't grow with the size of the whole request
+    */
+    private void writeBatch(List<User> pendingUsers) {
+        if (pendingUsers.isEmpty()) {
+            return;
+        }
+
+        userRepository.saveAll(pendingUsers);
+        entityManager.flush();
+        entityManager.clear();
+        pendingUsers.clear();
+    }
+
+    private Set<String> findTakenEmails(List<String> emails) {
+        Set<String> takenEmails = new HashSet<>();
+        for (int chunkStart = 0; chunkStart < emails.size(); chunkStart += IN_CLAUSE_CHUNK_SIZE) {
+            List<String> emailsChunk = emails.subList(
+                    chunkStart, Math.min(chunkStart + IN_CLAUSE_CHUNK_SIZE, emails.size())
+            );
+            takenEmails.addAll(userRepository.findAllEmailsByEmailIn(emailsChunk));
+        }
+
+        return takenEmails;
+    }
+
+    private void validateBirthDateRange(
             LocalDate birthDateFrom,
             LocalDate birthDateTo
     ) {
@@ -148,23 +520,15 @@ public class UserServiceImpl implements UserService {
                     "Invalid birth date range: birthDateFrom can't be newer than birthDateTo"
             );
         }
-
-        return userRepository
-                .findAllByBirthDateBetween(birthDateFrom, birthDateTo)
-                .stream()
-                .map(userMapper::mapUserToUserDTO)
-                .toList();
     }
 
     private void validateBirthDate(LocalDate birthDate) {
         LocalDate minimalAcceptedBirthDate = LocalDate.now().minusYears(minimalAge);
 
         if (birthDate.isAfter(minimalAcceptedBirthDate)) {
-            var error = new InvalidArgumentException(
+            throw new InvalidArgumentException(
                     "Invalid birth date: user must be at least " + minimalAge + " years old"
             );
-            log.error(error.getMessage(), error);
-            throw error;
         }
     }
 
@@ -175,19 +539,72 @@ public class UserServiceImpl implements UserService {
         userRepository.findByEmail(email).ifPresent(
                 foundUser -> {
                     if (!foundUser.getUuid().equals(userUuid)) {
-                        var error = new InvalidArgumentException(
-                                "Invalid email: given email is already taken"
-                        );
-                        log.error(error.getMessage(), error);
-                        throw error;
+                        throw new InvalidArgumentException(UserEmails.TAKEN_EMAIL_MESSAGE);
                     }
                 }
         );
     }
 
-    private void logAndThrowNotFoundException() {
-        var error = new NotFoundException("Given invalid user id: no users with such id");
-        log.error(error.getMessage(), error);
-        throw error;
+    /*
+    Lets the unique constraint on email do the uniqueness check of single-row updates,
+    which saves the lookup by email before every write
+    */
+    private <T> T rejectingTakenEmail(Supplier<T> userUpdate) {
+        try {
+            return userUpdate.get();
+        } catch (DataIntegrityViolationException e) {
+            throw new InvalidArgumentException(UserEmails.TAKEN_EMAIL_MESSAGE);
+        }
+    }
+
+    /*
+    Key-value events instead of concatenated messages: the request thread only fills the event,
+    formatting happens on the async appender's worker, and nothing at all is built when INFO is off
+    */
+    private static void logUserChange(
+            UserChangeType changeType,
+            UUID userId,
+            long startedAt
+    ) {
+        log.atInfo()
+                .setMessage("User changed")
+                .addKeyValue("operation", changeType)
+                .addKeyValue("uuid", userId)
+                .addKeyValue("durationMicros", elapsedMicros(startedAt))
+                .log();
+    }
+
+    private static void logUsersChange(
+            UserChangeType changeType,
+            long usersCount,
+            long startedAt
+    ) {
+        log.atInfo()
+                .setMessage("Users changed")
+                .addKeyValue("operation", changeType)
+                .addKeyValue("count", usersCount)
+                .addKeyValue("durationMicros", elapsedMicros(startedAt))
+                .log();
+    }
+
+    private static long elapsedMicros(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAt);
+    }
+
+    // client errors are logged once, rate-limited, by UserControllerAdvice
+    private void throwNotFoundException() {
+        throw new NotFoundException(NOT_FOUND_MESSAGE);
+    }
+
+    // only a conditional write that matched nothing pays for the lookup telling both cases apart
+    private void throwNotFoundOrVersionMismatch(
+            UUID userId,
+            Long expectedVersion
+    ) {
+        if (expectedVersion != null && userRepository.existsByUuid(userId)) {
+            throw new PreconditionFailedException(VERSION_MISMATCH_MESSAGE);
+        }
+
+        throwNotFoundException();
     }
 }
@@ -0,0 +1,28 @@
+-- "if not exists" lets databases whose schema was created by hibernate adopt this migration
+
+-- increment must match the allocationSize of User.id, the pooled optimizer relies on it
+create sequence if not exists user_seq start with 1 increment by 50;
+
+create table if not exists users
+(
+    id           bigint       not null primary key,
+    uuid         uuid         not null unique,
+    email        varchar(255) not null,
+    first_name   varchar(255) not null,
+    last_name    varchar(255) not null,
+    birth_date   date         not null,
+    address      varchar(255),
+    phone_number varchar(255)
+);
+
+-- a case-sensitive unique constraint hibernate may have created is left alone, this one is stricter
+create unique index if not exists users_email_lower_key on users (lower(email));
+
+/*
+Serves the birth date range listings, their keyset continuation and the stream
+from the index alone: (birth_date, uuid) is their order, the included columns are
+everything the user entity is loaded with. Index-only scans also need the visibility map
+to be current, which autovacuum takes care of at this write rate
+*/
+create index if not exists users_birth_date_uuid_idx on users (birth_date, uuid)
+    include (id, email, first_name, last_name, address, phone_number);
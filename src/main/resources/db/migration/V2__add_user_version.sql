@@ -0,0 +1,2 @@
+-- optimistic locking of users, rows that exist already start at version 0
+alter table users add column if not exists version bigint not null default 0;
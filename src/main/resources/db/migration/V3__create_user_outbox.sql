@@ -0,0 +1,12 @@
+/*
+Change events of users, written in the transaction of the change and removed once relayed.
+The entries of a user are inserted while the user's row is locked by the change,
+so their ids follow the order in which the changes committed
+*/
+create table if not exists user_outbox
+(
+    id          bigint generated always as identity primary key,
+    user_uuid   uuid                     not null,
+    change_type varchar(16)              not null,
+    occurred_at timestamp with time zone not null default now()
+);
@@ -0,0 +1,95 @@
+package com.example.clearsolutionspracticalassigment.admission;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AimdConcurrencyLimitTest {
+
+    private static final Duration LATENCY_THRESHOLD = Duration.ofMillis(100);
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofMillis(500).toNanos();
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private AimdConcurrencyLimit limit;
+
+    @BeforeEach
+    public void setup() {
+        limit = new AimdConcurrencyLimit(10, 2, 12, LATENCY_THRESHOLD, 0.5, nanoTime::get);
+    }
+
+    @Test
+    public void tryAcquire_RejectsRequestsOverLimit() {
+        IntStream.range(0, 10).forEach(request -> assertTrue(limit.tryAcquire()));
+
+        assertFalse(limit.tryAcquire());
+        assertEquals(10, limit.getInFlight());
+
+        limit.releaseWithoutSample();
+
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    public void release_CutsLimitOncePerThresholdPeriod_WhenRequestsAreSlow() {
+        IntStream.range(0, 3).forEach(request -> limit.tryAcquire());
+
+        limit.release(SLOW, false);
+        limit.release(SLOW, false);
+
+        assertEquals(5, limit.getLimit());
+
+        nanoTime.addAndGet(LATENCY_THRESHOLD.toNanos());
+        limit.release(FAST, true);
+
+        assertEquals(2.5, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void release_NeverCutsLimitBelowMinimum() {
+        for (int round = 0; round < 10; round++) {
+            limit.tryAcquire();
+            limit.release(SLOW, false);
+            nanoTime.addAndGet(LATENCY_THRESHOLD.toNanos());
+        }
+
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    public void release_RaisesLimitByAboutOnePerRound_WhileItIsUsed() {
+        IntStream.range(0, 10).forEach(request -> limit.tryAcquire());
+
+        // the first half of the round completes while the limit is at least half used
+        IntStream.range(0, 10).forEach(request -> limit.release(FAST, false));
+
+        assertTrue(limit.getLimit() > 10.4 && limit.getLimit() < 10.6, "limit: " + limit.getLimit());
+    }
+
+    @Test
+    public void release_KeepsLimit_WhenItIsFarFromUsed() {
+        limit.tryAcquire();
+        limit.release(FAST, false);
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void release_NeverRaisesLimitAboveMaximum() {
+        for (int round = 0; round < 1000; round++) {
+            IntStream.range(0, 12).forEach(request -> limit.tryAcquire());
+            IntStream.range(0, 12).forEach(request -> limit.release(FAST, false));
+        }
+
+        assertEquals(12, limit.getLimit());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.clearsolutionspracticalassigment.admission;
+
+import com.example.clearsolutionspracticalassigment.metrics.UserMetrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UserAdmissionInterceptorTest {
+
+    private static final Object HANDLER = new Object();
+
+    private final AimdConcurrencyLimit readLimit = new AimdConcurrencyLimit(1, 1, 10, Duration.ofSeconds(1), 0.5);
+    private final AimdConcurrencyLimit writeLimit = new AimdConcurrencyLimit(1, 1, 10, Duration.ofSeconds(1), 0.5);
+
+    private final UserMetrics userMetrics = mock(UserMetrics.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final UserAdmissionInterceptor interceptor = interceptor(readLimit);
+
+    @Test
+    public void preHandle_LimitsReadsAndWritesApart() throws Exception {
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/v1/user");
+        MockHttpServletRequest write = new MockHttpServletRequest("PATCH", "/v1/user/batch");
+
+        assertTrue(interceptor.preHandle(read, new MockHttpServletResponse(), HANDLER));
+        assertTrue(interceptor.preHandle(write, new MockHttpServletResponse(), HANDLER));
+
+        assertFalse(interceptor.preHandle(
+                new MockHttpServletRequest("HEAD", "/v1/user"), new MockHttpServletResponse(), HANDLER
+        ));
+        assertFalse(interceptor.preHandle(
+                new MockHttpServletRequest("DELETE", "/v1/user/batch"), new MockHttpServletResponse(), HANDLER
+        ));
+    }
+
+    @Test
+    public void preHandle_AnswersServiceUnavailable_WhenOverLimit() throws Exception {
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/user"), new MockHttpServletResponse(), HANDLER);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/user"), response, HANDLER));
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        assertEquals(
+                UserAdmissionInterceptor.OVERLOADED_TITLE,
+                objectMapper.readTree(response.getContentAsByteArray()).get("title").asText()
+        );
+        verify(userMetrics, times(1)).countOverloaded();
+        assertEquals(1, readLimit.getInFlight());
+    }
+
+    @Test
+    public void afterCompletion_ReleasesAdmission_Once() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/user");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, HANDLER);
+        interceptor.afterCompletion(request, response, HANDLER, null);
+        interceptor.afterCompletion(request, response, HANDLER, null);
+
+        assertEquals(0, readLimit.getInFlight());
+    }
+
+    @Test
+    public void afterCompletion_CutsLimit_WhenRequestFailed() throws Exception {
+        AimdConcurrencyLimit largeLimit = new AimdConcurrencyLimit(8, 1, 10, Duration.ofSeconds(1), 0.5);
+        UserAdmissionInterceptor largeInterceptor = interceptor(largeLimit);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/user");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(500);
+
+        largeInterceptor.preHandle(request, response, HANDLER);
+        largeInterceptor.afterCompletion(request, response, HANDLER, null);
+
+        assertEquals(4, largeLimit.getLimit());
+    }
+
+    @Test
+    public void afterConcurrentHandlingStarted_FreesPlaceOfEventStream() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/user/events");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, HANDLER);
+        interceptor.afterConcurrentHandlingStarted(request, response, HANDLER);
+
+        assertEquals(0, readLimit.getInFlight());
+
+        // the async dispatch that ends the stream isn't admitted or released again
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, HANDLER);
+        interceptor.afterCompletion(request, response, HANDLER, null);
+
+        assertEquals(0, readLimit.getInFlight());
+        assertEquals(1, readLimit.getLimit());
+    }
+
+    @Test
+    public void afterCompletion_TakesNoSampleFromNdjsonStream() throws Exception {
+        AimdConcurrencyLimit largeLimit = new AimdConcurrencyLimit(8, 1, 10, Duration.ZERO, 0.5);
+        UserAdmissionInterceptor largeInterceptor = interceptor(largeLimit);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/user");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        largeInterceptor.preHandle(request, response, HANDLER);
+        largeInterceptor.afterCompletion(request, response, HANDLER, null);
+
+        assertEquals(8, largeLimit.getLimit());
+        assertEquals(0, largeLimit.getInFlight());
+    }
+
+    private UserAdmissionInterceptor interceptor(AimdConcurrencyLimit readLimit) {
+        return new UserAdmissionInterceptor(readLimit, writeLimit, userMetrics, objectMapper);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.clearsolutionspracticalassigment.cache;
+
+import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+import com.example.clearsolutionspracticalassigment.event.UserChangeType;
+import com.example.clearsolutionspracticalassigment.event.UserChangedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheImplTest {
+
+    private final UUID userUuid = UUID.randomUUID();
+    private final AtomicInteger loadsCount = new AtomicInteger();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void get_LoadsUserOnce() {
+        UserCache userCache = new UserCacheImpl(100, Duration.ofMinutes(1), false, meterRegistry);
+
+        userCache.get(userUuid, existingUserLoader());
+        Optional<UserDTO> cachedUser = userCache.get(userUuid, existingUserLoader());
+
+        assertEquals(1, loadsCount.get());
+        assertTrue(cachedUser.isPresent());
+        assertEquals(userUuid, cachedUser.get().getUuid());
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "users", "result", "hit")
+                .functionCounter()
+                .count());
+    }
+
+    @Test
+    public void get_DoesNotCacheMissingUser_WithoutNegativeCaching() {
+        UserCache userCache = new UserCacheImpl(100, Duration.ofMinutes(1), false, meterRegistry);
+
+        userCache.get(userUuid, missingUserLoader());
+        Optional<UserDTO> cachedUser = userCache.get(userUuid, missingUserLoader());
+
+        assertEquals(2, loadsCount.get());
+        assertTrue(cachedUser.isEmpty());
+    }
+
+    @Test
+    public void get_CachesMissingUser_WithNegativeCaching() {
+        UserCache userCache = new UserCacheImpl(100, Duration.ofMinutes(1), true, meterRegistry);
+
+        userCache.get(userUuid, missingUserLoader());
+        Optional<UserDTO> cachedUser = userCache.get(userUuid, missingUserLoader());
+
+        assertEquals(1, loadsCount.get());
+        assertTrue(cachedUser.isEmpty());
+    }
+
+    @Test
+    public void evictChangedUsers_EvictsChangedUser() {
+        UserCacheImpl userCache = new UserCacheImpl(100, Duration.ofMinutes(1), false, meterRegistry);
+
+        userCache.get(userUuid, existingUserLoader());
+        userCache.evictChangedUsers(new UserChangedEvent(UserChangeType.UPDATED, userUuid));
+        userCache.get(userUuid, existingUserLoader());
+
+        assertEquals(2, loadsCount.get());
+    }
+
+    @Test
+    public void evictChangedUsers_EvictsAll_WhenChangedUsersAreUnknown() {
+        UserCacheImpl userCache = new UserCacheImpl(100, Duration.ofMinutes(1), true, meterRegistry);
+
+        userCache.get(userUuid, existingUserLoader());
+        userCache.evictChangedUsers(new UserChangedEvent(UserChangeType.DELETED, (Collection<UUID>) null));
+        userCache.get(userUuid, missingUserLoader());
+
+        assertEquals(2, loadsCount.get());
+    }
+
+    private Function<UUID, Optional<UserDTO>> existingUserLoader() {
+        return uuid -> {
+            loadsCount.incrementAndGet();
+            return Optional.of(UserDTO.builder()
+                    .uuid(uuid)
+                    .build());
+        };
+    }
+
+    private Function<UUID, Optional<UserDTO>> missingUserLoader() {
+        return uuid -> {
+            loadsCount.incrementAndGet();
+            return Optional.empty();
+        };
+    }
+}
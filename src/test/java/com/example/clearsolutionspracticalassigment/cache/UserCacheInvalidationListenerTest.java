@@ -0,0 +1,150 @@
+package com.example.clearsolutionspracticalassigment.cache;
+
+import com.example.clearsolutionspracticalassigment.entity.User;
+import com.example.clearsolutionspracticalassigment.event.UserChangeType;
+import com.example.clearsolutionspracticalassigment.event.UserChangedEvent;
+import com.example.clearsolutionspracticalassigment.event.UserChangesCommittedEvent;
+import com.example.clearsolutionspracticalassigment.repository.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/*
+Runs against the second-level cache of an in-memory database, the channel itself isn't opened.
+Users are loaded in transactions of their own, so they're cached the way requests cache them
+*/
+@DataJpaTest(properties = {
+        "cache.user.secondLevel.enabled=true",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserCacheInvalidationListenerTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final UserCache userCache = mock(UserCache.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private UserCacheInvalidationListener listener;
+    private Cache secondLevelCache;
+    private User changedUser;
+    private User otherUser;
+
+    @BeforeEach
+    public void setUp() {
+        listener = new UserCacheInvalidationListener(
+                userCache,
+                entityManagerFactory,
+                new DataSourceProperties(),
+                eventPublisher,
+                "user_cache_invalidation",
+                Duration.ofSeconds(5)
+        );
+        secondLevelCache = entityManagerFactory.getCache().unwrap(Cache.class);
+        secondLevelCache.evictAllRegions();
+        userRepository.deleteAllInBatch();
+
+        changedUser = userRepository.save(user("changed@gmail.com"));
+        otherUser = userRepository.save(user("other@gmail.com"));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                userRepository.findAllByNaturalIdIn(List.of(changedUser.getUuid(), otherUser.getUuid()))
+        );
+    }
+
+    @Test
+    public void evict_EvictsOnlyChangedUsers_OfOtherNodes() {
+        assertTrue(secondLevelCache.containsEntity(User.class, changedUser.getId()));
+
+        listener.evict(remotePayload(changedUser.getUuid()));
+
+        assertFalse(secondLevelCache.containsEntity(User.class, changedUser.getId()));
+        assertTrue(secondLevelCache.containsEntity(User.class, otherUser.getId()));
+        verify(userCache, times(1)).evict(List.of(changedUser.getUuid()));
+        verify(userCache, never()).evictAll();
+        verify(eventPublisher, times(1)).publishEvent(any(UserChangesCommittedEvent.class));
+    }
+
+    @Test
+    public void evict_EvictsUserLoadedByEmail() {
+        secondLevelCache.evictAllRegions();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                userRepository.findByEmail(changedUser.getEmail())
+        );
+        assertTrue(secondLevelCache.containsEntity(User.class, changedUser.getId()));
+
+        listener.evict(remotePayload(changedUser.getUuid()));
+
+        assertFalse(secondLevelCache.containsEntity(User.class, changedUser.getId()));
+    }
+
+    @Test
+    public void evict_LeavesCaches_ForNotificationsOfThisNode() {
+        listener.evict(UserCacheInvalidationPayloads.encode(
+                new UserChangedEvent(UserChangeType.UPDATED, changedUser.getUuid())
+        ).get(0));
+
+        assertTrue(secondLevelCache.containsEntity(User.class, changedUser.getId()));
+        verify(userCache, never()).evict(anyCollection());
+        // the change feed still learns about them
+        verify(eventPublisher, times(1)).publishEvent(any(UserChangesCommittedEvent.class));
+    }
+
+    @Test
+    public void evict_EvictsAllUsers_ForMalformedPayload() {
+        listener.evict("not a payload");
+
+        assertFalse(secondLevelCache.containsEntity(User.class, changedUser.getId()));
+        assertFalse(secondLevelCache.containsEntity(User.class, otherUser.getId()));
+        verify(userCache, times(1)).evictAll();
+    }
+
+    private static String remotePayload(UUID userId) {
+        return UserCacheInvalidationPayloads.encode(
+                new UserChangedEvent(UserChangeType.UPDATED, (Collection<UUID>) List.of(userId)),
+                UUID.randomUUID().toString()
+        ).get(0);
+    }
+
+    private static User user(String email) {
+        User user = new User(UUID.randomUUID());
+        user.setEmail(email);
+        user.setFirstName("John");
+        user.setLastName("Dou");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+
+        return user;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.clearsolutionspracticalassigment.cache;
+
+import com.example.clearsolutionspracticalassigment.event.UserChangeType;
+import com.example.clearsolutionspracticalassigment.event.UserChangedEvent;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheInvalidationPayloadsTest {
+
+    @Test
+    public void encode_SplitsUsers_IntoPayloadsFittingNotify() {
+        List<UUID> userUuids = Stream.generate(UUID::randomUUID)
+                .limit(450)
+                .toList();
+
+        List<String> payloads = UserCacheInvalidationPayloads.encode(
+                new UserChangedEvent(UserChangeType.DELETED, userUuids)
+        );
+
+        assertEquals(3, payloads.size());
+        payloads.forEach(payload -> assertTrue(payload.getBytes(StandardCharsets.UTF_8).length < 8000));
+        assertEquals(
+                userUuids,
+                payloads.stream()
+                        .map(UserCacheInvalidationPayloads::decode)
+                        .flatMap(Collection::stream)
+                        .toList()
+        );
+    }
+
+    @Test
+    public void encode_And_Decode_KeepUnknownUsers() {
+        List<String> payloads = UserCacheInvalidationPayloads.encode(
+                new UserChangedEvent(UserChangeType.DELETED, (Collection<UUID>) null)
+        );
+
+        assertEquals(1, payloads.size());
+        assertNull(UserCacheInvalidationPayloads.decode(payloads.get(0)));
+    }
+
+    @Test
+    public void isLocal_TellsPayloadsOfThisNode_FromOthers() {
+        UserChangedEvent event = new UserChangedEvent(UserChangeType.UPDATED, UUID.randomUUID());
+
+        String localPayload = UserCacheInvalidationPayloads.encode(event).get(0);
+        String remotePayload = UserCacheInvalidationPayloads.encode(event, UUID.randomUUID().toString()).get(0);
+
+        assertTrue(UserCacheInvalidationPayloads.isLocal(localPayload));
+        assertFalse(UserCacheInvalidationPayloads.isLocal(remotePayload));
+        assertEquals(event.getUserIds(), UserCacheInvalidationPayloads.decode(remotePayload));
+    }
+
+    @Test
+    public void decode_RejectsPayloadWithoutOrigin() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> UserCacheInvalidationPayloads.decode(UUID.randomUUID().toString())
+        );
+    }
+}
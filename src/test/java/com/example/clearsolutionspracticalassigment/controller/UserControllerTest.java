@@ -1,13 +1,30 @@
 package com.example.clearsolutionspracticalassigment.controller;
 
+import com.example.clearsolutionspracticalassigment.config.BinaryFormatsConfig;
 import com.example.clearsolutionspracticalassigment.controller.payload.CreateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserBatchItemRequestPayload;
 import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserRequestPayload;
 import com.example.clearsolutionspracticalassigment.controller.payload.UpdateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.dto.BatchDeleteResultDTO;
+import com.example.clearsolutionspracticalassigment.dto.BatchItemResultDTO;
+import com.example.clearsolutionspracticalassigment.dto.UserCreationDTO;
 import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+import com.example.clearsolutionspracticalassigment.dto.UserPageDTO;
+import com.example.clearsolutionspracticalassigment.feed.UserChangeFeed;
+import com.example.clearsolutionspracticalassigment.ingestion.UserWriteBehind;
 import com.example.clearsolutionspracticalassigment.exception.InvalidArgumentException;
+import com.example.clearsolutionspracticalassigment.exception.NotFoundException;
+import com.example.clearsolutionspracticalassigment.exception.PreconditionFailedException;
+import com.example.clearsolutionspracticalassigment.exception.ServiceUnavailableException;
+import com.example.clearsolutionspracticalassigment.exception.TooManyRequestsException;
+import com.example.clearsolutionspracticalassigment.metrics.ClientErrorLog;
+import com.example.clearsolutionspracticalassigment.metrics.UserMetrics;
 import com.example.clearsolutionspracticalassigment.service.UserService;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,24 +32,37 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static com.example.clearsolutionspracticalassigment.controller.validation.ValidationErrorMessages.INVALID_UUID_MESSAGE;
+import static com.example.clearsolutionspracticalassigment.controller.validation.ValidationErrorMessages.SUBSCRIPTION_SIZE_MESSAGE;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
+// the registry takes the gauges of UserAdmissionConfig, a WebMvcConfigurer the slice picks up
+@Import({BinaryFormatsConfig.class, SimpleMeterRegistry.class})
 @ExtendWith(MockitoExtension.class)
 class UserControllerTest {
 
+    private static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -42,6 +72,18 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserChangeFeed userChangeFeed;
+
+    @MockBean
+    private UserWriteBehind userWriteBehind;
+
+    @MockBean
+    private UserMetrics userMetrics;
+
+    @MockBean
+    private ClientErrorLog clientErrorLog;
+
     private static CreateUserRequestPayload validCreatePayload;
     private static CreateUserRequestPayload invalidCreatePayload;
     private static UpdateUserRequestPayload validUpdatePayload;
@@ -106,6 +148,81 @@ class UserControllerTest {
                 .andExpect(header().string("Location", is(locationHeaderVal)));
     }
 
+    @Test
+    public void createUser_ReadsCborPayload_And_ValidatesIt() throws Exception {
+        // a plain CBOR mapper stands for a client that knows nothing of the server's Jackson setup
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+        when(userService.createUser(any())).thenReturn(UserDTO.builder().uuid(UUID.randomUUID()).build());
+
+        mockMvc.perform(
+                post("/" + UserController.USER_PATH)
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(objectMapper.valueToTree(validCreatePayload)))
+        ).andExpect(status().isCreated());
+        mockMvc.perform(
+                post("/" + UserController.USER_PATH)
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(objectMapper.valueToTree(invalidCreatePayload)))
+        ).andExpect(status().isBadRequest());
+
+        verify(userService, times(1)).createUser(argThat(payload ->
+                payload.getEmail().equals(validCreatePayload.getEmail())
+                        && payload.getBirthDate().equals(validCreatePayload.getBirthDate())
+        ));
+    }
+
+    @Test
+    public void createUsers_ValidatesEveryItem() throws Exception {
+        ResultActions response = mockMvc.perform(
+                post("/" + UserController.USER_BATCH_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                List.of(validCreatePayload, invalidCreatePayload)
+                        ))
+        );
+
+        response.andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.title", is(InvalidArgumentException.name())))
+                .andExpect(jsonPath("$.status", is(HttpStatus.BAD_REQUEST.name())));
+        verify(userService, never()).createUsers(any());
+    }
+
+    @Test
+    public void createUsers_ValidatesEmptyBatch() throws Exception {
+        ResultActions response = mockMvc.perform(
+                post("/" + UserController.USER_BATCH_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]")
+        );
+
+        response.andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.messages.size()", is(1)));
+    }
+
+    @Test
+    public void createUsers_ReturnsItemResults() throws Exception {
+        BatchItemResultDTO createdItem = BatchItemResultDTO.builder()
+                .index(0)
+                .uuid(UUID.randomUUID())
+                .status(HttpStatus.CREATED)
+                .build();
+
+        when(userService.createUsers(any())).thenReturn(List.of(createdItem));
+
+        ResultActions response = mockMvc.perform(
+                post("/" + UserController.USER_BATCH_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(validCreatePayload)))
+        );
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].uuid", is(createdItem.getUuid().toString())))
+                .andExpect(jsonPath("$[0].status", is(HttpStatus.CREATED.name())));
+    }
+
     @Test
     public void updateUser_ValidatesPathVariable() throws Exception {
         ResultActions response = mockMvc.perform(
@@ -146,10 +263,79 @@ class UserControllerTest {
                         .content(objectMapper.writeValueAsString(validUpdatePayload))
         );
 
-        verify(userService, times(1)).updateUser(any(), any());
+        verify(userService, times(1)).updateUser(any(), any(), isNull());
+        response.andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void updateUser_PassesIfMatchVersion() throws Exception {
+        UUID userUuid = UUID.randomUUID();
+
+        ResultActions response = mockMvc.perform(
+                put("/" + UserController.USER_PATH + "/" + userUuid)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .content(objectMapper.writeValueAsString(validUpdatePayload))
+        );
+
+        verify(userService, times(1)).updateUser(eq(userUuid), any(), eq(7L));
         response.andExpect(status().isNoContent());
     }
 
+    @Test
+    public void updateUser_ReturnsPreconditionFailed_WhenVersionChanged() throws Exception {
+        UUID userUuid = UUID.randomUUID();
+
+        doThrow(new PreconditionFailedException("Precondition failed"))
+                .when(userService).updateUser(any(), any(), any());
+
+        ResultActions response = mockMvc.perform(
+                put("/" + UserController.USER_PATH + "/" + userUuid)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .content(objectMapper.writeValueAsString(validUpdatePayload))
+        );
+
+        response.andExpect(status().isPreconditionFailed())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.title", is(PreconditionFailedException.name())))
+                .andExpect(jsonPath("$.status", is(HttpStatus.PRECONDITION_FAILED.name())));
+        verify(userMetrics, times(1)).countPreconditionFailed();
+    }
+
+    @Test
+    public void updateUser_ReturnsPreconditionFailed_WhenIfMatchAnyAndUserMissing() throws Exception {
+        doThrow(new NotFoundException("Given invalid user id: no users with such id"))
+                .when(userService).updateUser(any(), any(), any());
+
+        ResultActions response = mockMvc.perform(
+                put("/" + UserController.USER_PATH + "/" + UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .content(objectMapper.writeValueAsString(validUpdatePayload))
+        );
+
+        response.andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.title", is(PreconditionFailedException.name())));
+    }
+
+    @Test
+    public void patchUser_ReturnsPreconditionFailed_WhenIfMatchAnyAndUserMissing() throws Exception {
+        doThrow(new NotFoundException("Given invalid user id: no users with such id"))
+                .when(userService).patchUser(any(), any(), any());
+
+        ResultActions response = mockMvc.perform(
+                patch("/" + UserController.USER_PATH + "/" + UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .content(objectMapper.writeValueAsString(validPatchPayload))
+        );
+
+        response.andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.title", is(PreconditionFailedException.name())));
+        verify(userService, times(1)).patchUser(any(), any(), isNull());
+    }
+
     @Test
     public void patchUser_ValidatesPathVariable() throws Exception {
         ResultActions response = mockMvc.perform(
@@ -190,10 +376,67 @@ class UserControllerTest {
                         .content(objectMapper.writeValueAsString(validPatchPayload))
         );
 
-        verify(userService, times(1)).patchUser(any(), any());
+        verify(userService, times(1)).patchUser(any(), any(), isNull());
         response.andExpect(status().isNoContent());
     }
 
+    @Test
+    public void patchUser_RejectsWeakIfMatch_WithoutCallingService() throws Exception {
+        UUID userUuid = UUID.randomUUID();
+
+        ResultActions response = mockMvc.perform(
+                patch("/" + UserController.USER_PATH + "/" + userUuid)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "W/\"7\"")
+                        .content(objectMapper.writeValueAsString(validPatchPayload))
+        );
+
+        response.andExpect(status().isPreconditionFailed());
+        verify(userService, never()).patchUser(any(), any(), any());
+    }
+
+    @Test
+    public void patchUsers_ValidatesEveryItem() throws Exception {
+        ResultActions response = mockMvc.perform(
+                patch("/" + UserController.USER_BATCH_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new PatchUserBatchItemRequestPayload(UUID.randomUUID(), validPatchPayload),
+                                new PatchUserBatchItemRequestPayload(null, invalidPatchPayload)
+                        )))
+        );
+
+        response.andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.title", is(InvalidArgumentException.name())))
+                .andExpect(jsonPath("$.messages.size()", is(1)));
+        verify(userService, never()).patchUsers(any());
+    }
+
+    @Test
+    public void patchUsers_ReturnsItemResults() throws Exception {
+        UUID userUuid = UUID.randomUUID();
+        BatchItemResultDTO patchedItem = BatchItemResultDTO.builder()
+                .index(0)
+                .uuid(userUuid)
+                .status(HttpStatus.NO_CONTENT)
+                .build();
+
+        when(userService.patchUsers(any())).thenReturn(List.of(patchedItem));
+
+        ResultActions response = mockMvc.perform(
+                patch("/" + UserController.USER_BATCH_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new PatchUserBatchItemRequestPayload(userUuid, validPatchPayload)
+                        )))
+        );
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].status", is(HttpStatus.NO_CONTENT.name())));
+    }
+
     @Test
     public void deleteUser_ValidatesPathVariable() throws Exception {
         ResultActions response = mockMvc.perform(
@@ -219,6 +462,65 @@ class UserControllerTest {
         response.andExpect(status().isNoContent());
     }
 
+    @Test
+    public void deleteUsers_ReturnsDeletedCount() throws Exception {
+        List<UUID> userUuids = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        when(userService.deleteUsers(any())).thenReturn(new BatchDeleteResultDTO(2));
+
+        ResultActions response = mockMvc.perform(
+                delete("/" + UserController.USER_BATCH_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userUuids))
+        );
+
+        verify(userService, times(1)).deleteUsers(userUuids);
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.deletedCount", is(2)));
+    }
+
+    @Test
+    public void deleteUsersByBirthDate_ValidatesRightBorder() throws Exception {
+        ResultActions response = mockMvc.perform(
+                delete("/" + UserController.USER_PATH)
+                        .queryParam("birthDateFrom", LocalDate.now().minusYears(2).toString())
+                        .queryParam("birthDateTo", LocalDate.now().toString())
+        );
+
+        response.andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is(InvalidArgumentException.name())))
+                .andExpect(jsonPath("$.messages.size()", is(1)));
+        verify(userService, never()).deleteAllUsersByBirthDateBetween(any(), any());
+    }
+
+    @Test
+    public void deleteUsersByBirthDate_ReturnsDeletedCount() throws Exception {
+        LocalDate validBorder = LocalDate.now().minusYears(2);
+
+        when(userService.deleteAllUsersByBirthDateBetween(any(), any()))
+                .thenReturn(new BatchDeleteResultDTO(7));
+
+        ResultActions response = mockMvc.perform(
+                delete("/" + UserController.USER_PATH)
+                        .queryParam("birthDateFrom", validBorder.toString())
+                        .queryParam("birthDateTo", validBorder.toString())
+        );
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.deletedCount", is(7)));
+    }
+
+    @Test
+    public void getUserById_RejectsUuidAcceptedOnlyByUuidFromString() throws Exception {
+        ResultActions response = mockMvc.perform(
+                get("/" + UserController.USER_PATH + "/" + "1-1-1-1-1")
+        );
+
+        response.andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.messages[0]", is("getUserById.userId: " + INVALID_UUID_MESSAGE)));
+        verify(userService, never()).getUserById(any());
+    }
+
     @Test
     public void getUserById_ValidatesPathVariable() throws Exception {
         ResultActions response = mockMvc.perform(
@@ -229,19 +531,193 @@ class UserControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.title", is(InvalidArgumentException.name())))
                 .andExpect(jsonPath("$.status", is(HttpStatus.BAD_REQUEST.name())))
-                .andExpect(jsonPath("$.messages.size()", is(1)));
+                .andExpect(jsonPath("$.messages.size()", is(1)))
+                .andExpect(jsonPath("$.messages[0]", is("getUserById.userId: " + INVALID_UUID_MESSAGE)));
+        verify(userMetrics, times(1)).countValidationFailure();
     }
 
     @Test
     public void getUserById_ReturnsOk() throws Exception {
         UUID userUuid = UUID.randomUUID();
 
+        when(userService.getUserById(userUuid))
+                .thenReturn(UserDTO.builder().uuid(userUuid).version(3L).build());
+
         ResultActions response = mockMvc.perform(
                 get("/" + UserController.USER_PATH + "/" + userUuid)
         );
 
         verify(userService, times(1)).getUserById(userUuid);
-        response.andExpect(status().isOk());
+        response.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, is("\"3\"")))
+                .andExpect(jsonPath("$.uuid", is(userUuid.toString())))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    public void getUserById_ReturnsNotModified_WhenETagMatches() throws Exception {
+        UUID userUuid = UUID.randomUUID();
+
+        when(userService.getUserById(userUuid))
+                .thenReturn(UserDTO.builder().uuid(userUuid).version(3L).build());
+
+        mockMvc.perform(
+                        get("/" + UserController.USER_PATH + "/" + userUuid)
+                                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                )
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, is("\"3\"")))
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(
+                        get("/" + UserController.USER_PATH + "/" + userUuid)
+                                .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                )
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void createUser_AcceptsUserForWriteBehind_WhenClientPrefersRespondAsync() throws Exception {
+        UUID userUuid = UUID.randomUUID();
+
+        when(userWriteBehind.accept(any()))
+                .thenReturn(UserCreationDTO.builder().uuid(userUuid).status(HttpStatus.ACCEPTED).build());
+
+        mockMvc.perform(
+                        post("/" + UserController.USER_PATH)
+                                .header(UserController.PREFER_HEADER, "wait=5, respond-async")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(validCreatePayload))
+                )
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, is(UserController.USER_CREATION_PATH + "/" + userUuid)))
+                .andExpect(header().string(UserController.PREFERENCE_APPLIED_HEADER, is(UserController.RESPOND_ASYNC_PREFERENCE)))
+                .andExpect(jsonPath("$.status", is(HttpStatus.ACCEPTED.name())));
+        verify(userService, never()).createUser(any());
+    }
+
+    @Test
+    public void createUser_ReturnsTooManyRequests_WhenWriteBehindQueueIsFull() throws Exception {
+        when(userWriteBehind.accept(any()))
+                .thenThrow(new TooManyRequestsException("Too many pending user creations: retry later"));
+
+        mockMvc.perform(
+                        post("/" + UserController.USER_PATH)
+                                .header(UserController.PREFER_HEADER, UserController.RESPOND_ASYNC_PREFERENCE)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(validCreatePayload))
+                )
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.title", is(TooManyRequestsException.name())));
+        verify(userMetrics, times(1)).countTooManyRequests();
+    }
+
+    @Test
+    public void createUser_ReturnsServiceUnavailable_WhenWriteBehindStopped() throws Exception {
+        when(userWriteBehind.accept(any()))
+                .thenThrow(new ServiceUnavailableException("User creations aren't accepted: the node is shutting down"));
+
+        mockMvc.perform(
+                        post("/" + UserController.USER_PATH)
+                                .header(UserController.PREFER_HEADER, UserController.RESPOND_ASYNC_PREFERENCE)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(validCreatePayload))
+                )
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.title", is(ServiceUnavailableException.name())));
+    }
+
+    @Test
+    public void createUser_ValidatesPayload_BeforeWriteBehind() throws Exception {
+        mockMvc.perform(
+                        post("/" + UserController.USER_PATH)
+                                .header(UserController.PREFER_HEADER, UserController.RESPOND_ASYNC_PREFERENCE)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(invalidCreatePayload))
+                )
+                .andExpect(status().isBadRequest());
+        verify(userWriteBehind, never()).accept(any());
+    }
+
+    @Test
+    public void getUserCreation_ReturnsOutcome() throws Exception {
+        UUID userUuid = UUID.randomUUID();
+
+        when(userWriteBehind.getCreation(userUuid))
+                .thenReturn(UserCreationDTO.builder().uuid(userUuid).status(HttpStatus.CREATED).build());
+
+        mockMvc.perform(get("/" + UserController.USER_CREATION_PATH + "/" + userUuid))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.uuid", is(userUuid.toString())))
+                .andExpect(jsonPath("$.status", is(HttpStatus.CREATED.name())));
+    }
+
+    @Test
+    public void subscribeToUser_OpensEventStream() throws Exception {
+        UUID userUuid = UUID.randomUUID();
+
+        when(userService.getUserById(userUuid))
+                .thenReturn(UserDTO.builder().uuid(userUuid).version(3L).build());
+        when(userChangeFeed.subscribe(List.of(userUuid)))
+                .thenReturn(new SseEmitter());
+
+        mockMvc.perform(
+                        get("/" + UserController.USER_PATH + "/" + userUuid + "/events")
+                                .accept(MediaType.TEXT_EVENT_STREAM)
+                )
+                .andExpect(request().asyncStarted());
+        verify(userChangeFeed, times(1)).subscribe(List.of(userUuid));
+    }
+
+    @Test
+    public void subscribeToUser_ReportsUnknownUser_BeforeSubscribing() throws Exception {
+        UUID userUuid = UUID.randomUUID();
+
+        when(userService.getUserById(userUuid))
+                .thenThrow(new NotFoundException("Not found user with id: " + userUuid));
+
+        mockMvc.perform(
+                        get("/" + UserController.USER_PATH + "/" + userUuid + "/events")
+                                .accept(MediaType.TEXT_EVENT_STREAM)
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.title", is(NotFoundException.name())));
+        verify(userChangeFeed, never()).subscribe(any());
+    }
+
+    @Test
+    public void subscribeToUsers_SubscribesToGivenUsers() throws Exception {
+        UUID firstUserUuid = UUID.randomUUID();
+        UUID secondUserUuid = UUID.randomUUID();
+
+        when(userChangeFeed.subscribe(List.of(firstUserUuid, secondUserUuid)))
+                .thenReturn(new SseEmitter());
+
+        mockMvc.perform(
+                        get("/" + UserController.USER_EVENTS_PATH)
+                                .queryParam("userIds", firstUserUuid + "," + secondUserUuid)
+                                .accept(MediaType.TEXT_EVENT_STREAM)
+                )
+                .andExpect(request().asyncStarted());
+        verify(userChangeFeed, times(1)).subscribe(List.of(firstUserUuid, secondUserUuid));
+    }
+
+    @Test
+    public void subscribeToUsers_LimitsSubscribedUsers() throws Exception {
+        String userIds = Stream.generate(UUID::randomUUID)
+                .limit(UserController.MAX_SUBSCRIBED_USERS + 1)
+                .map(UUID::toString)
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(
+                        get("/" + UserController.USER_EVENTS_PATH)
+                                .queryParam("userIds", userIds)
+                                .accept(MediaType.TEXT_EVENT_STREAM)
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.messages[0]", is("subscribeToUsers.userIds: " + SUBSCRIPTION_SIZE_MESSAGE)));
+        verify(userChangeFeed, never()).subscribe(any());
     }
 
     @Test
@@ -278,18 +754,116 @@ class UserControllerTest {
     public void listUsers_ReturnsOk() throws Exception {
         LocalDate validBorder = LocalDate.now().minusYears(2);
 
-        when(userService.findAllUsersByBirthDateBetween(any(), any()))
-                .thenReturn(List.of(new UserDTO(), new UserDTO()));
+        when(userService.findAllUsersByBirthDateBetween(any(), any(), any(), anyInt()))
+                .thenReturn(new UserPageDTO(List.of(new UserDTO(), new UserDTO()), "next_cursor"));
+
+        ResultActions response = mockMvc.perform(
+                get("/" + UserController.USER_PATH)
+                        .queryParam("birthDateFrom", validBorder.toString())
+                        .queryParam("birthDateTo", validBorder.toString())
+        );
+
+        verify(userService, times(1)).findAllUsersByBirthDateBetween(
+                validBorder, validBorder, null, Integer.parseInt(UserController.DEFAULT_PAGE_LIMIT)
+        );
+        response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.users.size()", is(2)))
+                .andExpect(jsonPath("$.nextCursor", is("next_cursor")));
+    }
+
+    @Test
+    public void listUsers_WritesSmileAndCbor_ShapedLikeJson() throws Exception {
+        LocalDate validBorder = LocalDate.now().minusYears(2);
+        UserDTO userDTO = UserDTO.builder()
+                .uuid(UUID.randomUUID())
+                .email("test@gmail.com")
+                .firstName("John")
+                .lastName("Dou")
+                .birthDate(validBorder)
+                .build();
+        UserPageDTO page = new UserPageDTO(List.of(userDTO), "next_cursor");
+
+        when(userService.findAllUsersByBirthDateBetween(any(), any(), any(), anyInt()))
+                .thenReturn(page);
+
+        byte[] jsonUsers = readUsers(MediaType.APPLICATION_JSON);
+        byte[] smileUsers = readUsers(APPLICATION_SMILE);
+        byte[] cborUsers = readUsers(MediaType.APPLICATION_CBOR);
+
+        assertEquals(
+                objectMapper.readTree(jsonUsers),
+                new ObjectMapper(new SmileFactory()).readTree(smileUsers)
+        );
+        assertEquals(
+                objectMapper.readTree(jsonUsers),
+                new ObjectMapper(new CBORFactory()).readTree(cborUsers)
+        );
+    }
+
+    @Test
+    public void listUsers_ValidatesLimit() throws Exception {
+        LocalDate validBorder = LocalDate.now().minusYears(2);
+
+        ResultActions response = mockMvc.perform(
+                get("/" + UserController.USER_PATH)
+                        .queryParam("birthDateFrom", validBorder.toString())
+                        .queryParam("birthDateTo", validBorder.toString())
+                        .queryParam("limit", String.valueOf(UserController.MAX_PAGE_LIMIT + 1))
+        );
+
+        response.andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.title", is(InvalidArgumentException.name())))
+                .andExpect(jsonPath("$.status", is(HttpStatus.BAD_REQUEST.name())))
+                .andExpect(jsonPath("$.messages.size()", is(1)));
+    }
+
+    @Test
+    public void streamUsers_WritesNdjson() throws Exception {
+        LocalDate validBorder = LocalDate.now().minusYears(2);
+        UserDTO firstUser = UserDTO.builder().uuid(UUID.randomUUID()).build();
+        UserDTO secondUser = UserDTO.builder().uuid(UUID.randomUUID()).build();
+
+        doAnswer(invocation -> {
+            Consumer<UserDTO> userConsumer = invocation.getArgument(2);
+            userConsumer.accept(firstUser);
+            userConsumer.accept(secondUser);
+            return null;
+        }).when(userService).streamAllUsersByBirthDateBetween(any(), any(), any());
 
         ResultActions response = mockMvc.perform(
                 get("/" + UserController.USER_PATH)
+                        .accept(MediaType.APPLICATION_NDJSON)
                         .queryParam("birthDateFrom", validBorder.toString())
                         .queryParam("birthDateTo", validBorder.toString())
         );
 
         response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        objectMapper.writeValueAsString(firstUser) + "\n"
+                                + objectMapper.writeValueAsString(secondUser) + "\n"
+                ));
+    }
+
+    @Test
+    public void streamUsers_ReturnsJsonError_WhenRangeIsInvalid() throws Exception {
+        doThrow(new InvalidArgumentException("Invalid birth date range"))
+                .when(userService).streamAllUsersByBirthDateBetween(any(), any(), any());
+
+        ResultActions response = mockMvc.perform(
+                get("/" + UserController.USER_PATH)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .queryParam("birthDateFrom", LocalDate.now().minusYears(1).toString())
+                        .queryParam("birthDateTo", LocalDate.now().minusYears(2).toString())
+        );
+
+        response.andExpect(status().isBadRequest())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.size()", is(2)));
+                .andExpect(jsonPath("$.title", is(InvalidArgumentException.name())))
+                .andExpect(jsonPath("$.messages.size()", is(1)));
+        verify(userMetrics, times(1)).countInvalidArgument();
     }
 
     private static UpdateUserRequestPayload convertCreatePayloadToUpdatePayload(
@@ -313,4 +887,20 @@ class UserControllerTest {
                 .phoneNumber(creationPayload.getPhoneNumber())
                 .build();
     }
-}
\ No newline at end of file
+
+    private byte[] readUsers(MediaType mediaType) throws Exception {
+        LocalDate validBorder = LocalDate.now().minusYears(2);
+
+        return mockMvc.perform(
+                        get("/" + UserController.USER_PATH)
+                                .queryParam("birthDateFrom", validBorder.toString())
+                                .queryParam("birthDateTo", validBorder.toString())
+                                .accept(mediaType)
+                )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(mediaType))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.clearsolutionspracticalassigment.controller;
+
+import com.example.clearsolutionspracticalassigment.exception.PreconditionFailedException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserVersionETagTest {
+
+    @Test
+    public void parseIfMatch_ReadsVersionOfOwnTag() {
+        assertEquals(0L, UserVersionETag.parseIfMatch(UserVersionETag.of(0)));
+        assertEquals(Long.MAX_VALUE, UserVersionETag.parseIfMatch(UserVersionETag.of(Long.MAX_VALUE)));
+        assertEquals(42L, UserVersionETag.parseIfMatch(" \"42\" "));
+    }
+
+    @Test
+    public void parseIfMatch_ReturnsNull_WhenAnyVersionMatches() {
+        assertNull(UserVersionETag.parseIfMatch(null));
+        assertNull(UserVersionETag.parseIfMatch("*"));
+    }
+
+    @Test
+    public void matchesAny_OnlyForAnyTag() {
+        assertTrue(UserVersionETag.matchesAny(" * "));
+        assertFalse(UserVersionETag.matchesAny(null));
+        assertFalse(UserVersionETag.matchesAny(UserVersionETag.of(7)));
+    }
+
+    @Test
+    public void parseIfMatch_FailsPrecondition_ForTagsThatCantMatch() {
+        for (String ifMatch : new String[]{
+                "W/\"42\"", "42", "\"\"", "\"", "\"4a\"", "\"-1\"", "\"42\", \"43\"", "\"9223372036854775808\"", "\"١\""
+        }) {
+            assertThrows(
+                    PreconditionFailedException.class,
+                    () -> UserVersionETag.parseIfMatch(ifMatch),
+                    ifMatch
+            );
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.clearsolutionspracticalassigment.controller.validation;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Email;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.example.clearsolutionspracticalassigment.controller.validation.ValidationPatterns.EMAIL_PATTERN;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailValidatorTest {
+
+    // pieces the generated emails are glued from, long ones sit right at the length limits
+    private static final String[] EMAIL_PIECES = {
+            "a", "Z", "9", "_", "-", ".", "@", "+", " ", "é",
+            "ab", "abc", "abcd", "abcde", "gmail", ".com", "@mail.",
+            "a".repeat(63), "a".repeat(64), "b".repeat(200)
+    };
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    private final EmailValidator emailValidator = new EmailValidator();
+
+    @BeforeAll
+    public static void setup() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    public void isValid_AcceptsValidEmails() {
+        assertTrue(emailValidator.isValid(null, null));
+        assertTrue(emailValidator.isValid("john.dou@gmail.com", null));
+        assertTrue(emailValidator.isValid("john_dou-1@mail.example-company.co", null));
+    }
+
+    @Test
+    public void isValid_RejectsInvalidEmails() {
+        assertFalse(emailValidator.isValid("", null));
+        assertFalse(emailValidator.isValid("john.dou", null));
+        assertFalse(emailValidator.isValid("john..dou@gmail.com", null));
+        assertFalse(emailValidator.isValid(".john@gmail.com", null));
+        assertFalse(emailValidator.isValid("john@gmail", null));
+        assertFalse(emailValidator.isValid("john@-gmail.com", null));
+        assertFalse(emailValidator.isValid("john@gmail.travel", null));
+        assertFalse(emailValidator.isValid("john@dou@gmail.com", null));
+    }
+
+    @Test
+    public void isValid_AgreesWithFormerEmailConstraint() {
+        Random random = new Random(42);
+        for (int iteration = 0; iteration < 100_000; iteration++) {
+            StringBuilder email = new StringBuilder();
+            int piecesCount = 1 + random.nextInt(8);
+            for (int piece = 0; piece < piecesCount; piece++) {
+                email.append(EMAIL_PIECES[random.nextInt(EMAIL_PIECES.length)]);
+            }
+
+            boolean expected = validator.validate(new FormerEmailHolder(email.toString())).isEmpty();
+            assertEquals(expected, emailValidator.isValid(email, null), email::toString);
+        }
+    }
+
+    private record FormerEmailHolder(
+            @Email(regexp = EMAIL_PATTERN)
+            String email
+    ) {
+    }
+}
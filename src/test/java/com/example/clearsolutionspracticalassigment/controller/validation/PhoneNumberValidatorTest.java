@@ -0,0 +1,47 @@
+package com.example.clearsolutionspracticalassigment.controller.validation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static com.example.clearsolutionspracticalassigment.controller.validation.ValidationPatterns.PHONE_NUMBER_PATTERN;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhoneNumberValidatorTest {
+
+    private static final String PHONE_NUMBER_CHARS = "0123456789-+ a";
+
+    private final PhoneNumberValidator phoneNumberValidator = new PhoneNumberValidator();
+
+    @Test
+    public void isValid_AcceptsValidPhoneNumbers() {
+        assertTrue(phoneNumberValidator.isValid(null, null));
+        assertTrue(phoneNumberValidator.isValid("+380501234567", null));
+        assertTrue(phoneNumberValidator.isValid("050-123-45-67", null));
+    }
+
+    @Test
+    public void isValid_RejectsInvalidPhoneNumbers() {
+        assertFalse(phoneNumberValidator.isValid("", null));
+        assertFalse(phoneNumberValidator.isValid("12345678", null));
+        assertFalse(phoneNumberValidator.isValid("1234567890123456", null));
+        assertFalse(phoneNumberValidator.isValid("(050)1234567", null));
+    }
+
+    @Test
+    public void isValid_AgreesWithFormerPattern() {
+        Pattern formerPattern = Pattern.compile(PHONE_NUMBER_PATTERN);
+        Random random = new Random(42);
+        for (int iteration = 0; iteration < 100_000; iteration++) {
+            StringBuilder phoneNumber = new StringBuilder();
+            int length = random.nextInt(18);
+            for (int index = 0; index < length; index++) {
+                phoneNumber.append(PHONE_NUMBER_CHARS.charAt(random.nextInt(PHONE_NUMBER_CHARS.length())));
+            }
+
+            boolean expected = formerPattern.matcher(phoneNumber).matches();
+            assertEquals(expected, phoneNumberValidator.isValid(phoneNumber, null), phoneNumber::toString);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.clearsolutionspracticalassigment.controller.validation;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StrictUuidEditorTest {
+
+    private static final String UUID_CHARS = "0123456789abcdefABCDEF-g";
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    public static void setup() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    public void parse_ParsesValidUuid() {
+        UUID uuid = UUID.randomUUID();
+
+        assertEquals(uuid, StrictUuidEditor.parse(uuid.toString()));
+    }
+
+    @Test
+    public void setAsText_SetsParsedUuid() {
+        UUID uuid = UUID.randomUUID();
+        StrictUuidEditor uuidEditor = new StrictUuidEditor();
+
+        uuidEditor.setAsText(uuid.toString());
+
+        assertEquals(uuid, uuidEditor.getValue());
+    }
+
+    @Test
+    public void parse_RejectsInvalidUuid_WithValidationMessage() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> StrictUuidEditor.parse("invalid_UUID")
+        );
+
+        assertEquals(ValidationErrorMessages.INVALID_UUID_MESSAGE, exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> StrictUuidEditor.parse(new UUID(0, 0).toString()));
+        assertThrows(IllegalArgumentException.class, () -> StrictUuidEditor.parse("1-1-1-1-1"));
+        assertThrows(IllegalArgumentException.class, () -> StrictUuidEditor.parse("B030E4FD-DDCA-E127-8EBF-10567AF79EAB"));
+    }
+
+    @Test
+    public void parse_AgreesWithFormerUuidConstraint() {
+        Random random = new Random(42);
+        for (int iteration = 0; iteration < 100_000; iteration++) {
+            String rawUuid = mutate(new UUID(random.nextLong(), random.nextLong()).toString(), random);
+
+            if (wasFormerlyAccepted(rawUuid)) {
+                assertEquals(UUID.fromString(rawUuid), StrictUuidEditor.parse(rawUuid), rawUuid);
+            } else {
+                assertThrows(IllegalArgumentException.class, () -> StrictUuidEditor.parse(rawUuid), rawUuid);
+            }
+        }
+    }
+
+    /*
+    The former path: @UUID then UUID.fromString. Some ids passed neither cleanly,
+    @UUID throws on extra dashes and lets a trailing dash through to fromString,
+    both ended in a 500 and count as invalid here
+    */
+    private static boolean wasFormerlyAccepted(String rawUuid) {
+        try {
+            if (!validator.validate(new FormerUuidHolder(rawUuid)).isEmpty()) {
+                return false;
+            }
+            UUID.fromString(rawUuid);
+            return true;
+        } catch (ValidationException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // random bits hit every version and variant, a few replaced chars break the format
+    private static String mutate(String rawUuid, Random random) {
+        StringBuilder mutated = new StringBuilder(rawUuid);
+        int mutationsCount = random.nextInt(4) == 0 ? 1 + random.nextInt(2) : 0;
+        for (int mutation = 0; mutation < mutationsCount; mutation++) {
+            mutated.setCharAt(random.nextInt(mutated.length()), UUID_CHARS.charAt(random.nextInt(UUID_CHARS.length())));
+        }
+        if (random.nextInt(50) == 0) {
+            mutated.setLength(random.nextInt(mutated.length()));
+        }
+
+        return mutated.toString();
+    }
+
+    private record FormerUuidHolder(
+            @org.hibernate.validator.constraints.UUID(allowNil = false)
+            String uuid
+    ) {
+    }
+}
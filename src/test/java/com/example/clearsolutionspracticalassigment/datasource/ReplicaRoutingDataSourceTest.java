@@ -0,0 +1,62 @@
+package com.example.clearsolutionspracticalassigment.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @InjectMocks
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @AfterEach
+    public void cleanup() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void determineCurrentLookupKey_RoutesReadOnlyTransaction_ToReplica() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaLagMonitor.isReplicaUsable())
+                .thenReturn(true);
+
+        assertEquals(DataSourceRoute.REPLICA, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void determineCurrentLookupKey_RoutesReadWriteTransaction_ToPrimary() {
+        assertEquals(DataSourceRoute.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void determineCurrentLookupKey_RoutesReadOnlyTransaction_ToPrimary_WhenReplicaLags() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaLagMonitor.isReplicaUsable())
+                .thenReturn(false);
+
+        assertEquals(DataSourceRoute.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void readFromPrimary_RoutesReadOnlyTransaction_ToPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        lenient().when(replicaLagMonitor.isReplicaUsable())
+                .thenReturn(true);
+
+        Object route = ReplicaRoutingDataSource.readFromPrimary(routingDataSource::determineCurrentLookupKey);
+
+        assertEquals(DataSourceRoute.PRIMARY, route);
+        assertEquals(DataSourceRoute.REPLICA, routingDataSource.determineCurrentLookupKey());
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.clearsolutionspracticalassigment.feed;
+
+import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+import com.example.clearsolutionspracticalassigment.event.UserChangesCommittedEvent;
+import com.example.clearsolutionspracticalassigment.repository.UserRepository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeFeedImplTest {
+
+    private static final Duration AWAIT_TIMEOUT = Duration.ofSeconds(5);
+    private static final int SUBSCRIBER_QUEUE_CAPACITY = 2;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserChangeFeedImpl userChangeFeed;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        userChangeFeed = new UserChangeFeedImpl(
+                userRepository,
+                new ObjectMapper().findAndRegisterModules(),
+                Duration.ofMinutes(1),
+                Duration.ofHours(1),
+                SUBSCRIBER_QUEUE_CAPACITY
+        );
+        userChangeFeed.start();
+        mockMvc = MockMvcBuilders.standaloneSetup(new FeedController(userChangeFeed)).build();
+    }
+
+    @AfterEach
+    public void teardown() {
+        userChangeFeed.stop();
+    }
+
+    @Test
+    public void subscribe_StartsWithSnapshotOfEveryUser() throws Exception {
+        UserDTO existingUser = user(UUID.randomUUID(), 3L);
+        UUID missingUserId = UUID.randomUUID();
+
+        when(userRepository.findAllUserDTOsByUuidIn(anyCollection())).thenReturn(List.of(existingUser));
+
+        MockHttpServletResponse response = subscribe(existingUser.getUuid(), missingUserId);
+
+        awaitContent(response, "event:user\nid:3\ndata:{\"uuid\":\"" + existingUser.getUuid() + "\"");
+        awaitContent(response, "event:deleted\ndata:" + missingUserId + "\n\n");
+    }
+
+    @Test
+    public void publishChangedUsers_SendsNewSnapshots_OnlyToSubscribersOfChangedUser() throws Exception {
+        UUID subscribedUserId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+
+        when(userRepository.findAllUserDTOsByUuidIn(List.of(subscribedUserId)))
+                .thenReturn(List.of(user(subscribedUserId, 0L)), List.of(user(subscribedUserId, 0L)))
+                .thenReturn(List.of(user(subscribedUserId, 1L)));
+
+        MockHttpServletResponse firstResponse = subscribe(subscribedUserId);
+        MockHttpServletResponse secondResponse = subscribe(subscribedUserId);
+        awaitContent(firstResponse, "id:0\n");
+        awaitContent(secondResponse, "id:0\n");
+
+        userChangeFeed.publishChangedUsers(new UserChangesCommittedEvent(List.of(otherUserId, subscribedUserId)));
+
+        awaitContent(firstResponse, "id:1\n");
+        awaitContent(secondResponse, "id:1\n");
+        // loaded once for all subscribers, and never for users nobody listens to
+        verify(userRepository, times(3)).findAllUserDTOsByUuidIn(List.of(subscribedUserId));
+        verify(userRepository, never()).findAllUserDTOsByUuidIn(argThat(userIds -> userIds.contains(otherUserId)));
+    }
+
+    @Test
+    public void publishChangedUsers_ReloadsAllSubscribedUsers_WhenChangedUsersAreUnknown() throws Exception {
+        UUID subscribedUserId = UUID.randomUUID();
+
+        when(userRepository.findAllUserDTOsByUuidIn(List.of(subscribedUserId)))
+                .thenReturn(List.of(user(subscribedUserId, 4L)), List.of());
+
+        MockHttpServletResponse response = subscribe(subscribedUserId);
+        awaitContent(response, "id:4\n");
+
+        userChangeFeed.publishChangedUsers(new UserChangesCommittedEvent(null));
+
+        awaitContent(response, "event:deleted\ndata:" + subscribedUserId + "\n\n");
+    }
+
+    @Test
+    public void publishChangedUsers_ReachesSubscribers_WhileAnotherOneBlocks() throws Exception {
+        UUID subscribedUserId = UUID.randomUUID();
+        BlockingEmitter blockingEmitter = new BlockingEmitter();
+
+        when(userRepository.findAllUserDTOsByUuidIn(List.of(subscribedUserId)))
+                .thenReturn(List.of(user(subscribedUserId, 0L)), List.of(user(subscribedUserId, 0L)))
+                .thenReturn(List.of(user(subscribedUserId, 1L)));
+
+        userChangeFeed.subscribe(blockingEmitter, List.of(subscribedUserId));
+        awaitLatch(blockingEmitter.sendStarted);
+        MockHttpServletResponse response = subscribe(subscribedUserId);
+        awaitContent(response, "id:0\n");
+
+        userChangeFeed.publishChangedUsers(new UserChangesCommittedEvent(List.of(subscribedUserId)));
+
+        awaitContent(response, "id:1\n");
+        blockingEmitter.release.countDown();
+    }
+
+    @Test
+    public void publishChangedUsers_DropsSubscriber_ThatFallsTooFarBehind() throws Exception {
+        UUID subscribedUserId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+        BlockingEmitter blockingEmitter = new BlockingEmitter();
+
+        when(userRepository.findAllUserDTOsByUuidIn(List.of(subscribedUserId)))
+                .thenReturn(List.of(user(subscribedUserId, 0L)));
+        when(userRepository.findAllUserDTOsByUuidIn(List.of(otherUserId)))
+                .thenReturn(List.of(user(otherUserId, 0L)));
+
+        userChangeFeed.subscribe(blockingEmitter, List.of(subscribedUserId));
+        awaitLatch(blockingEmitter.sendStarted);
+        // the first event is being written, the next ones fill the queue and overflow it
+        for (int change = 0; change <= SUBSCRIBER_QUEUE_CAPACITY; change++) {
+            userChangeFeed.publishChangedUsers(new UserChangesCommittedEvent(List.of(subscribedUserId)));
+        }
+        // dispatched after the changes, so they've all been queued once this snapshot arrives
+        awaitContent(subscribe(otherUserId), "id:0\n");
+        blockingEmitter.release.countDown();
+
+        awaitLatch(blockingEmitter.completed);
+        // unsubscribed, later changes aren't even loaded for it
+        userChangeFeed.publishChangedUsers(new UserChangesCommittedEvent(List.of(subscribedUserId)));
+        verify(userRepository, after(100).times(SUBSCRIBER_QUEUE_CAPACITY + 2))
+                .findAllUserDTOsByUuidIn(List.of(subscribedUserId));
+        assertEquals(1, blockingEmitter.sentEvents.get());
+    }
+
+    @Test
+    public void subscribe_SendsThroughFixedThreads_HoweverManySubscribersBlock() throws Exception {
+        UUID subscribedUserId = UUID.randomUUID();
+        List<BlockingEmitter> blockingEmitters = Stream.generate(BlockingEmitter::new)
+                .limit(UserChangeFeedImpl.SENDER_THREADS * 3L)
+                .toList();
+
+        when(userRepository.findAllUserDTOsByUuidIn(List.of(subscribedUserId)))
+                .thenReturn(List.of(user(subscribedUserId, 0L)));
+
+        blockingEmitters.forEach(emitter -> userChangeFeed.subscribe(emitter, List.of(subscribedUserId)));
+
+        // every sender is stuck in a write, the other subscribers wait for one instead of getting a thread
+        verify(userRepository, timeout(AWAIT_TIMEOUT.toMillis()).times(blockingEmitters.size()))
+                .findAllUserDTOsByUuidIn(List.of(subscribedUserId));
+        Thread.sleep(100);
+        assertEquals(UserChangeFeedImpl.SENDER_THREADS, blockingEmitters.stream()
+                .filter(emitter -> emitter.sendStarted.getCount() == 0)
+                .count());
+
+        for (BlockingEmitter emitter : blockingEmitters) {
+            emitter.release.countDown();
+        }
+        for (BlockingEmitter emitter : blockingEmitters) {
+            awaitLatch(emitter.sendStarted);
+        }
+        assertEquals(UserChangeFeedImpl.SENDER_THREADS, blockingEmitters.stream()
+                .map(emitter -> emitter.senderThread)
+                .distinct()
+                .count());
+    }
+
+    private MockHttpServletResponse subscribe(UUID... userIds) throws Exception {
+        return mockMvc.perform(
+                        get("/events")
+                                .queryParam("userIds", Set.of(userIds).stream().map(UUID::toString).toArray(String[]::new))
+                                .accept(MediaType.TEXT_EVENT_STREAM)
+                )
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    // events are written by the dispatcher thread of the feed
+    private static void awaitContent(MockHttpServletResponse response, String expectedContent) throws Exception {
+        long deadline = System.nanoTime() + AWAIT_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (response.getContentAsString().contains(expectedContent)) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+
+        fail("Expected event stream to contain:\n" + expectedContent + "\nbut it was:\n" + response.getContentAsString());
+    }
+
+    private static void awaitLatch(CountDownLatch latch) throws InterruptedException {
+        if (!latch.await(AWAIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            fail("Timed out waiting for the subscriber");
+        }
+    }
+
+    private static UserDTO user(UUID userId, long version) {
+        return UserDTO.builder()
+                .uuid(userId)
+                .email("test@gmail.com")
+                .firstName("John")
+                .lastName("Dou")
+                .birthDate(LocalDate.of(2000, 1, 1))
+                .version(version)
+                .build();
+    }
+
+    // a client that stopped reading: its first write blocks until released
+    private static class BlockingEmitter extends SseEmitter {
+
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final AtomicInteger sentEvents = new AtomicInteger();
+        private volatile Thread senderThread;
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            senderThread = Thread.currentThread();
+            sendStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sentEvents.incrementAndGet();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+
+    @RestController
+    private static class FeedController {
+
+        private final UserChangeFeed userChangeFeed;
+
+        private FeedController(UserChangeFeed userChangeFeed) {
+            this.userChangeFeed = userChangeFeed;
+        }
+
+        @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public SseEmitter subscribe(@RequestParam List<UUID> userIds) {
+            return userChangeFeed.subscribe(userIds);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.clearsolutionspracticalassigment.ingestion;
+
+import com.example.clearsolutionspracticalassigment.controller.payload.CreateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.dto.BatchItemResultDTO;
+import com.example.clearsolutionspracticalassigment.dto.UserCreationDTO;
+import com.example.clearsolutionspracticalassigment.exception.InvalidArgumentException;
+import com.example.clearsolutionspracticalassigment.exception.NotFoundException;
+import com.example.clearsolutionspracticalassigment.exception.ServiceUnavailableException;
+import com.example.clearsolutionspracticalassigment.exception.TooManyRequestsException;
+import com.example.clearsolutionspracticalassigment.ingestion.UserWriteBehindImpl.PendingCreation;
+import com.example.clearsolutionspracticalassigment.repository.UserRepository;
+import com.example.clearsolutionspracticalassigment.service.UserService;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserWriteBehindImplTest {
+
+    private static final int QUEUE_CAPACITY = 2;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserWriteBehindImpl userWriteBehind;
+
+    @BeforeEach
+    public void setup() {
+        userWriteBehind = new UserWriteBehindImpl(
+                userService, userRepository, QUEUE_CAPACITY, 500, Duration.ofMinutes(10), 1000
+        );
+        // accepting without the flusher thread, so the queue keeps what the tests put in
+        ReflectionTestUtils.setField(userWriteBehind, "running", true);
+    }
+
+    @Test
+    public void accept_QueuesValidatedUser_UnderNewId() {
+        CreateUserRequestPayload payload = payload("test@gmail.com");
+
+        UserCreationDTO creation = userWriteBehind.accept(payload);
+
+        verify(userService, times(1)).validateCreationData(payload);
+        verifyNoInteractions(userRepository);
+        assertEquals(HttpStatus.ACCEPTED, creation.getStatus());
+        assertEquals(HttpStatus.ACCEPTED, userWriteBehind.getCreation(creation.getUuid()).getStatus());
+    }
+
+    @Test
+    public void accept_RejectsEmailOfQueuedUser_RegardlessOfCase() {
+        userWriteBehind.accept(payload("John.Dou@gmail.com"));
+
+        assertThrows(InvalidArgumentException.class, () -> userWriteBehind.accept(payload("john.dou@Gmail.com")));
+    }
+
+    @Test
+    public void accept_RejectsUsers_WhenQueueIsFull_And_ReleasesTheirEmails() {
+        userWriteBehind.accept(payload("first@gmail.com"));
+        userWriteBehind.accept(payload("second@gmail.com"));
+
+        assertThrows(TooManyRequestsException.class, () -> userWriteBehind.accept(payload("third@gmail.com")));
+        // the rejected email isn't reserved, so it's rejected for the full queue again
+        assertThrows(TooManyRequestsException.class, () -> userWriteBehind.accept(payload("third@gmail.com")));
+    }
+
+    @Test
+    public void accept_RejectsUsers_AfterStop() {
+        userWriteBehind.start();
+        userWriteBehind.stop();
+
+        assertThrows(ServiceUnavailableException.class, () -> userWriteBehind.accept(payload("test@gmail.com")));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    public void store_CreatesBatchUnderAcceptedIds_And_RecordsOutcomes() {
+        PendingCreation created = pendingCreation("created@gmail.com");
+        PendingCreation rejected = pendingCreation("rejected@gmail.com");
+
+        when(userService.createUsers(
+                List.of(created.getCreationData(), rejected.getCreationData()),
+                List.of(created.getUserId(), rejected.getUserId())
+        )).thenReturn(List.of(
+                result(created.getUserId(), HttpStatus.CREATED),
+                result(null, HttpStatus.BAD_REQUEST)
+        ));
+
+        userWriteBehind.store(List.of(created, rejected));
+
+        assertEquals(HttpStatus.CREATED, userWriteBehind.getCreation(created.getUserId()).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, userWriteBehind.getCreation(rejected.getUserId()).getStatus());
+    }
+
+    @Test
+    public void store_StoresUsersOneByOne_WhenBatchViolatesConstraint() {
+        PendingCreation created = pendingCreation("created@gmail.com");
+        PendingCreation conflicting = pendingCreation("conflicting@gmail.com");
+
+        when(userService.createUsers(anyList(), argThat(userIds -> userIds.size() == 2)))
+                .thenThrow(new ConstraintViolationException("duplicate key", null, "users_email_lower_key"));
+        when(userService.createUsers(List.of(created.getCreationData()), List.of(created.getUserId())))
+                .thenReturn(List.of(result(created.getUserId(), HttpStatus.CREATED)));
+        when(userService.createUsers(List.of(conflicting.getCreationData()), List.of(conflicting.getUserId())))
+                .thenThrow(new ConstraintViolationException("duplicate key", null, "users_email_lower_key"));
+
+        userWriteBehind.store(List.of(created, conflicting));
+
+        assertEquals(HttpStatus.CREATED, userWriteBehind.getCreation(created.getUserId()).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, userWriteBehind.getCreation(conflicting.getUserId()).getStatus());
+    }
+
+    @Test
+    public void store_FailsWholeBatch_WhenDatabaseIsUnavailable() {
+        PendingCreation creation = pendingCreation("test@gmail.com");
+
+        when(userService.createUsers(anyList(), anyList()))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        userWriteBehind.store(List.of(creation));
+
+        verify(userService, times(1)).createUsers(anyList(), anyList());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, userWriteBehind.getCreation(creation.getUserId()).getStatus());
+    }
+
+    @Test
+    public void getCreation_ReportsStoredUser_AfterOutcomeIsGone() {
+        UUID storedUserId = UUID.randomUUID();
+        UUID unknownUserId = UUID.randomUUID();
+
+        when(userRepository.existsByUuid(storedUserId)).thenReturn(true);
+        when(userRepository.existsByUuid(unknownUserId)).thenReturn(false);
+
+        assertEquals(HttpStatus.CREATED, userWriteBehind.getCreation(storedUserId).getStatus());
+        assertThrows(NotFoundException.class, () -> userWriteBehind.getCreation(unknownUserId));
+    }
+
+    private PendingCreation pendingCreation(String email) {
+        CreateUserRequestPayload payload = payload(email);
+        UUID userId = userWriteBehind.accept(payload).getUuid();
+
+        return new PendingCreation(userId, email, payload);
+    }
+
+    private static BatchItemResultDTO result(UUID userId, HttpStatus status) {
+        return BatchItemResultDTO.builder()
+                .uuid(userId)
+                .status(status)
+                .build();
+    }
+
+    private static CreateUserRequestPayload payload(String email) {
+        return CreateUserRequestPayload.builder()
+                .email(email)
+                .firstName("John")
+                .lastName("Dou")
+                .birthDate(LocalDate.of(2000, 7, 15))
+                .build();
+    }
+}
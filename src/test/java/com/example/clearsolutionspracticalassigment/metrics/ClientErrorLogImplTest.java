@@ -0,0 +1,52 @@
+package com.example.clearsolutionspracticalassigment.metrics;
+
+import com.example.clearsolutionspracticalassigment.exception.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(OutputCaptureExtension.class)
+class ClientErrorLogImplTest {
+
+    private static final Duration AWAIT_TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    public void record_ReportsFirstError_And_CountsTheRestOfInterval(CapturedOutput output) throws InterruptedException {
+        ClientErrorLogImpl clientErrorLog = new ClientErrorLogImpl(Duration.ofHours(1));
+
+        for (int attempt = 0; attempt < 100; attempt++) {
+            clientErrorLog.record("not_found", new NotFoundException("No user " + attempt));
+        }
+
+        awaitOutput(output, "Rejected 1 requests as not_found since the last report, latest: No user 0");
+        assertFalse(output.getOut().contains("No user 1"));
+    }
+
+    @Test
+    public void record_ReportsAggregatedCount_OncePerInterval(CapturedOutput output) throws InterruptedException {
+        ClientErrorLogImpl clientErrorLog = new ClientErrorLogImpl(Duration.ZERO);
+
+        clientErrorLog.record("validation", new NotFoundException("first"));
+        clientErrorLog.record("validation", new NotFoundException("second"));
+
+        awaitOutput(output, "Rejected 1 requests as validation since the last report, latest: second");
+    }
+
+    // once a Spring test has configured logback, events reach the console through its async appender
+    private static void awaitOutput(CapturedOutput output, String expectedLine) throws InterruptedException {
+        long deadline = System.nanoTime() + AWAIT_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (output.getOut().contains(expectedLine)) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+
+        fail("Expected output to contain:\n" + expectedLine + "\nbut it was:\n" + output.getOut());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.clearsolutionspracticalassigment.outbox;
+
+import com.example.clearsolutionspracticalassigment.event.UserChangeType;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileUserChangeSinkTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void publish_AppendsOneJsonLinePerEntry() throws IOException {
+        Path file = directory.resolve("user-changes.ndjson");
+        FileUserChangeSink userChangeSink = new FileUserChangeSink(objectMapper, file);
+        UUID userId = UUID.randomUUID();
+        Instant occurredAt = Instant.parse("2024-01-01T10:15:30Z");
+
+        userChangeSink.publish(List.of(
+                new UserOutboxEntry(1, userId, UserChangeType.CREATED, occurredAt),
+                new UserOutboxEntry(2, userId, UserChangeType.PATCHED, occurredAt)
+        ));
+        userChangeSink.publish(List.of(
+                new UserOutboxEntry(3, userId, UserChangeType.DELETED, occurredAt)
+        ));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        JsonNode lastEntry = objectMapper.readTree(lines.get(2));
+        assertEquals(3, lastEntry.get("id").asLong());
+        assertEquals(userId.toString(), lastEntry.get("userId").asText());
+        assertEquals("DELETED", lastEntry.get("type").asText());
+        assertEquals("2024-01-01T10:15:30Z", lastEntry.get("occurredAt").asText());
+    }
+}
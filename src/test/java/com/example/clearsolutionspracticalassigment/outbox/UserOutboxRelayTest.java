@@ -0,0 +1,90 @@
+package com.example.clearsolutionspracticalassigment.outbox;
+
+import com.example.clearsolutionspracticalassigment.event.UserChangeType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserOutboxRelayTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private UserOutbox userOutbox;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final InMemoryUserChangeSink userChangeSink = new InMemoryUserChangeSink();
+
+    private UserOutboxRelay userOutboxRelay;
+
+    @BeforeEach
+    public void setup() {
+        userOutboxRelay = new UserOutboxRelay(userOutbox, userChangeSink, transactionTemplate, BATCH_SIZE);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    public void relay_DeliversBatchesInOutboxOrder_And_RemovesThem() {
+        List<UserOutboxEntry> firstBatch = entries(1, 2);
+        List<UserOutboxEntry> lastBatch = entries(3);
+
+        when(userOutbox.tryLockRelay()).thenReturn(true);
+        when(userOutbox.findOldest(BATCH_SIZE)).thenReturn(firstBatch, lastBatch);
+
+        userOutboxRelay.relay();
+
+        assertEquals(List.of(1L, 2L, 3L), userChangeSink.drain().stream().map(UserOutboxEntry::getId).toList());
+        verify(userOutbox, times(1)).remove(List.of(1L, 2L));
+        verify(userOutbox, times(1)).remove(List.of(3L));
+    }
+
+    @Test
+    public void relay_ReadsNothing_WhenAnotherNodeRelays() {
+        when(userOutbox.tryLockRelay()).thenReturn(false);
+
+        userOutboxRelay.relay();
+
+        verify(userOutbox, never()).findOldest(anyInt());
+        assertTrue(userChangeSink.drain().isEmpty());
+    }
+
+    @Test
+    public void relay_KeepsEntries_WhenSinkFails() {
+        UserChangeSink failingSink = mock(UserChangeSink.class);
+        UserOutboxRelay failingRelay = new UserOutboxRelay(userOutbox, failingSink, transactionTemplate, BATCH_SIZE);
+
+        when(userOutbox.tryLockRelay()).thenReturn(true);
+        when(userOutbox.findOldest(BATCH_SIZE)).thenReturn(entries(1, 2));
+        doThrow(new IllegalStateException("sink is down")).when(failingSink).publish(any());
+
+        failingRelay.relay();
+
+        verify(userOutbox, never()).remove(any());
+    }
+
+    private static List<UserOutboxEntry> entries(long... ids) {
+        UUID userId = UUID.randomUUID();
+
+        return LongStream.of(ids)
+                .mapToObj(id -> new UserOutboxEntry(id, userId, UserChangeType.UPDATED, Instant.now()))
+                .toList();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.clearsolutionspracticalassigment.outbox;
+
+import com.example.clearsolutionspracticalassigment.event.UserChangeType;
+import com.example.clearsolutionspracticalassigment.event.UserChangedEvent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserOutboxWriterTest {
+
+    @Mock
+    private UserOutbox userOutbox;
+
+    @InjectMocks
+    private UserOutboxWriter userOutboxWriter;
+
+    @Test
+    public void recordChangedUsers_AppendsEveryChangedUser() {
+        List<UUID> userIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        userOutboxWriter.recordChangedUsers(new UserChangedEvent(UserChangeType.PATCHED, userIds));
+
+        verify(userOutbox, times(1)).append(UserChangeType.PATCHED, userIds);
+    }
+
+    @Test
+    public void recordChangedUsers_SkipsEventsWithoutUsers() {
+        userOutboxWriter.recordChangedUsers(new UserChangedEvent(UserChangeType.DELETED, (Collection<UUID>) null));
+        userOutboxWriter.recordChangedUsers(new UserChangedEvent(UserChangeType.PATCHED, List.of()));
+
+        verifyNoInteractions(userOutbox);
+    }
+}
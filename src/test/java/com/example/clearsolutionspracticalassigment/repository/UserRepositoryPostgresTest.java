@@ -0,0 +1,96 @@
+package com.example.clearsolutionspracticalassigment.repository;
+
+import com.example.clearsolutionspracticalassigment.entity.User;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+The native deletes only run on postgres: H2 has neither DELETE ... RETURNING nor data-modifying CTEs.
+Runs against the database of POSTGRES_TEST_URL (with POSTGRES_TEST_USERNAME and POSTGRES_TEST_PASSWORD),
+migrated by flyway, and is skipped without it. Every test rolls back
+*/
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@EnabledIfEnvironmentVariable(named = "POSTGRES_TEST_URL", matches = ".+")
+class UserRepositoryPostgresTest {
+
+    private static final LocalDate RANGE_BIRTH_DATE = LocalDate.of(1985, 6, 1);
+    private static final LocalDate OUTSIDE_BIRTH_DATE = LocalDate.of(1995, 6, 1);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("POSTGRES_TEST_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("POSTGRES_TEST_USERNAME"));
+        registry.add("spring.datasource.password", () -> System.getenv("POSTGRES_TEST_PASSWORD"));
+    }
+
+    @Test
+    public void deleteChunkByBirthDateBetween_DeletesInChunks_And_RecordsEveryDeletedUser() {
+        List<UUID> rangeUserIds = IntStream.range(0, 5)
+                .mapToObj(index -> saveUser(RANGE_BIRTH_DATE).getUuid())
+                .toList();
+        User outsideUser = saveUser(OUTSIDE_BIRTH_DATE);
+
+        assertEquals(2, userRepository.deleteChunkByBirthDateBetween(RANGE_BIRTH_DATE, RANGE_BIRTH_DATE, 2));
+        assertEquals(2, userRepository.deleteChunkByBirthDateBetween(RANGE_BIRTH_DATE, RANGE_BIRTH_DATE, 2));
+        assertEquals(1, userRepository.deleteChunkByBirthDateBetween(RANGE_BIRTH_DATE, RANGE_BIRTH_DATE, 2));
+        assertEquals(0, userRepository.deleteChunkByBirthDateBetween(RANGE_BIRTH_DATE, RANGE_BIRTH_DATE, 2));
+
+        assertEquals(Set.copyOf(rangeUserIds), Set.copyOf(outboxUserIds("DELETED")));
+        assertTrue(userRepository.existsByUuid(outsideUser.getUuid()));
+        rangeUserIds.forEach(userId -> assertFalse(userRepository.existsByUuid(userId)));
+    }
+
+    @Test
+    public void deleteAllByUuidIn_ReturnsOnlyDeletedUsers() {
+        UUID existingUserId = saveUser(RANGE_BIRTH_DATE).getUuid();
+        UUID unknownUserId = UUID.randomUUID();
+
+        List<UUID> deletedUserIds = userRepository.deleteAllByUuidIn(List.of(existingUserId, unknownUserId));
+
+        assertEquals(List.of(existingUserId), deletedUserIds);
+        assertFalse(userRepository.existsByUuid(existingUserId));
+    }
+
+    private List<UUID> outboxUserIds(String changeType) {
+        return jdbcTemplate.queryForList(
+                "select user_uuid from user_outbox where change_type = ?", UUID.class, changeType
+        );
+    }
+
+    private User saveUser(LocalDate birthDate) {
+        User user = new User(UUID.randomUUID());
+        user.setEmail(user.getUuid() + "@gmail.com");
+        user.setFirstName("John");
+        user.setLastName("Dou");
+        user.setBirthDate(birthDate);
+
+        return userRepository.saveAndFlush(user);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.clearsolutionspracticalassigment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserEmailsTest {
+
+    @Test
+    public void key_FoldsCase() {
+        assertEquals("john.dou@gmail.com", UserEmails.key("John.Dou@Gmail.COM"));
+    }
+
+    @Test
+    public void key_FoldsCase_RegardlessOfDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            // a turkish default would turn "I" into a dotless "ı"
+            assertEquals("info@gmail.com", UserEmails.key("INFO@gmail.com"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
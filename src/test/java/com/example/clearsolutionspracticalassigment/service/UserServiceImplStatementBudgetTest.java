@@ -0,0 +1,268 @@
+package com.example.clearsolutionspracticalassigment.service;
+
+import com.example.clearsolutionspracticalassigment.cache.UserCacheImpl;
+import com.example.clearsolutionspracticalassigment.cache.UserCacheInvalidationPublisher;
+import com.example.clearsolutionspracticalassigment.controller.payload.CreateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.controller.payload.UpdateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.entity.User;
+import com.example.clearsolutionspracticalassigment.exception.PreconditionFailedException;
+import com.example.clearsolutionspracticalassigment.mapper.UserMapperImpl;
+import com.example.clearsolutionspracticalassigment.metrics.UserMetrics;
+import com.example.clearsolutionspracticalassigment.outbox.UserOutboxImpl;
+import com.example.clearsolutionspracticalassigment.outbox.UserOutboxWriter;
+import com.example.clearsolutionspracticalassigment.sql.SqlStatementCounter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static com.example.clearsolutionspracticalassigment.sql.SqlStatementCounter.assertMaxStatementCount;
+import static com.example.clearsolutionspracticalassigment.sql.SqlStatementCounter.assertStatementCount;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+Round trip budgets of the service against an in-memory database:
+a query or lookup added to one of these paths fails the build instead of slowing production down
+The migrations are postgres-only (covering and expression indexes), so H2 gets the schema from the mapping
+and the outbox table from sql/postgres-only-schema.sql.
+Writes commit, so the outbox insert and the cache invalidation their listeners add
+before commit are counted with them
+*/
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({
+        UserServiceImpl.class,
+        UserMapperImpl.class,
+        UserCacheImpl.class,
+        UserOutboxWriter.class,
+        UserOutboxImpl.class,
+        UserCacheInvalidationPublisher.class,
+        SimpleMeterRegistry.class,
+        SqlStatementCounter.class
+})
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Sql("/sql/postgres-only-schema.sql")
+class UserServiceImplStatementBudgetTest {
+
+    private static final LocalDate SINGLE_USER_BIRTH_DATE = LocalDate.of(1990, 1, 1);
+    private static final LocalDate CROWDED_BIRTH_DATE = LocalDate.of(1991, 1, 1);
+    private static final int CROWDED_USERS_COUNT = 300;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private UserMetrics userMetrics;
+
+    // committed writes outlive their test
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from user_outbox");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void createUser_SendsAtMostFiveStatements() {
+        // email lookup, sequence call, insert, outbox insert and notification
+        assertMaxStatementCount(5, () -> userService.createUser(creationPayload("created@gmail.com")));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void createUsers_SendsOneEmailLookup_And_BatchedInserts() {
+        List<CreateUserRequestPayload> creationData = IntStream.range(0, 1000)
+                .mapToObj(index -> creationPayload("created" + index + "@gmail.com"))
+                .toList();
+
+        // email lookup, one sequence call per 50 ids, one insert per 500 rows,
+        // one outbox insert and a notification per 200 users
+        assertMaxStatementCount(
+                1 + 1000 / 50 + 1 + 1000 / 500 + 1 + 1000 / 200,
+                () -> userService.createUsers(creationData)
+        );
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void updateUser_SendsThreeStatements() {
+        User user = persistUsers(1, SINGLE_USER_BIRTH_DATE).get(0);
+        UpdateUserRequestPayload updatedData = UpdateUserRequestPayload.builder()
+                .email("updated@gmail.com")
+                .firstName("Jane")
+                .lastName("Dou")
+                .birthDate(SINGLE_USER_BIRTH_DATE)
+                .build();
+
+        // the update, its outbox insert and notification
+        assertStatementCount(3, () -> userService.updateUser(user.getUuid(), updatedData, null));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void patchUser_SendsThreeStatements() {
+        User user = persistUsers(1, SINGLE_USER_BIRTH_DATE).get(0);
+        PatchUserRequestPayload updatedData = PatchUserRequestPayload.builder()
+                .email("patched@gmail.com")
+                .build();
+
+        assertStatementCount(3, () -> userService.patchUser(user.getUuid(), updatedData, null));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void patchUser_SendsTwoStatements_And_RecordsNothing_WhenUserAlreadyHasValues() {
+        User user = persistUsers(1, SINGLE_USER_BIRTH_DATE).get(0);
+        PatchUserRequestPayload updatedData = PatchUserRequestPayload.builder()
+                .email(user.getEmail())
+                .lastName(user.getLastName())
+                .build();
+
+        // the update that matches nothing and the count telling the user exists
+        assertStatementCount(2, () -> userService.patchUser(user.getUuid(), updatedData, 0L));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from user_outbox", Integer.class));
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "select version from users where uuid = ?", Long.class, user.getUuid()
+        ));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void updateUser_IfMatch_SendsThreeStatements_And_TwoWhenVersionIsStale() {
+        User user = persistUsers(1, SINGLE_USER_BIRTH_DATE).get(0);
+        UpdateUserRequestPayload updatedData = UpdateUserRequestPayload.builder()
+                .email("updated@gmail.com")
+                .firstName("Jane")
+                .lastName("Dou")
+                .birthDate(SINGLE_USER_BIRTH_DATE)
+                .build();
+
+        assertStatementCount(3, () -> userService.updateUser(user.getUuid(), updatedData, 0L));
+        // the update above moved the user to version 1, a rolled back write records nothing
+        assertStatementCount(2, () -> assertThrows(
+                PreconditionFailedException.class,
+                () -> userService.updateUser(user.getUuid(), updatedData, 0L)
+        ));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void deleteUser_SendsThreeStatements() {
+        User user = persistUsers(1, SINGLE_USER_BIRTH_DATE).get(0);
+
+        assertStatementCount(3, () -> userService.deleteUser(user.getUuid()));
+    }
+
+    @Test
+    public void getUserById_SendsOneStatement_And_NoneWhenCached() {
+        User user = persistUsers(1, SINGLE_USER_BIRTH_DATE).get(0);
+
+        assertStatementCount(1, () -> userService.getUserById(user.getUuid()));
+        assertStatementCount(0, () -> userService.getUserById(user.getUuid()));
+        assertNoManagedEntities();
+    }
+
+    @Test
+    public void findAllUsersByBirthDateBetween_SendsOneStatement_RegardlessOfResultSize() {
+        persistUsers(1, SINGLE_USER_BIRTH_DATE);
+        persistUsers(CROWDED_USERS_COUNT, CROWDED_BIRTH_DATE);
+
+        assertStatementCount(1, () -> userService.findAllUsersByBirthDateBetween(
+                SINGLE_USER_BIRTH_DATE, SINGLE_USER_BIRTH_DATE, null, CROWDED_USERS_COUNT
+        ));
+        assertStatementCount(1, () -> userService.findAllUsersByBirthDateBetween(
+                CROWDED_BIRTH_DATE, CROWDED_BIRTH_DATE, null, CROWDED_USERS_COUNT
+        ));
+        assertNoManagedEntities();
+    }
+
+    @Test
+    public void streamAllUsersByBirthDateBetween_SendsOneStatement_RegardlessOfResultSize() {
+        persistUsers(1, SINGLE_USER_BIRTH_DATE);
+        persistUsers(CROWDED_USERS_COUNT, CROWDED_BIRTH_DATE);
+
+        assertStatementCount(1, () -> userService.streamAllUsersByBirthDateBetween(
+                SINGLE_USER_BIRTH_DATE, SINGLE_USER_BIRTH_DATE, user -> {}
+        ));
+        assertStatementCount(1, () -> userService.streamAllUsersByBirthDateBetween(
+                CROWDED_BIRTH_DATE, CROWDED_BIRTH_DATE, user -> {}
+        ));
+        assertNoManagedEntities();
+    }
+
+    private List<User> persistUsers(
+            int count,
+            LocalDate birthDate
+    ) {
+        return new TransactionTemplate(transactionManager).execute(status -> persistUsersInTransaction(count, birthDate));
+    }
+
+    private List<User> persistUsersInTransaction(
+            int count,
+            LocalDate birthDate
+    ) {
+        List<User> users = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            User user = new User(UUID.randomUUID());
+            user.setEmail(user.getUuid() + "@gmail.com");
+            user.setFirstName("John");
+            user.setLastName("Dou");
+            user.setBirthDate(birthDate);
+            users.add(testEntityManager.persist(user));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        return users;
+    }
+
+    // read paths select DTOs, nothing they load may end up in the persistence context
+    private void assertNoManagedEntities() {
+        assertEquals(0, testEntityManager.getEntityManager()
+                .unwrap(Session.class)
+                .getStatistics()
+                .getEntityCount());
+    }
+
+    private static CreateUserRequestPayload creationPayload(String email) {
+        return CreateUserRequestPayload.builder()
+                .email(email)
+                .firstName("John")
+                .lastName("Dou")
+                .birthDate(SINGLE_USER_BIRTH_DATE)
+                .build();
+    }
+}
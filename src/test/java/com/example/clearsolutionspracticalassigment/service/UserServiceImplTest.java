@@ -1,15 +1,27 @@
 package com.example.clearsolutionspracticalassigment.service;
 
+import com.example.clearsolutionspracticalassigment.cache.UserCache;
 import com.example.clearsolutionspracticalassigment.controller.payload.CreateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserBatchItemRequestPayload;
 import com.example.clearsolutionspracticalassigment.controller.payload.PatchUserRequestPayload;
 import com.example.clearsolutionspracticalassigment.controller.payload.UpdateUserRequestPayload;
+import com.example.clearsolutionspracticalassigment.dto.BatchDeleteResultDTO;
+import com.example.clearsolutionspracticalassigment.dto.BatchItemResultDTO;
 import com.example.clearsolutionspracticalassigment.dto.UserDTO;
+import com.example.clearsolutionspracticalassigment.dto.UserPageDTO;
 import com.example.clearsolutionspracticalassigment.entity.User;
+import com.example.clearsolutionspracticalassigment.event.UserChangeType;
+import com.example.clearsolutionspracticalassigment.event.UserChangedEvent;
 import com.example.clearsolutionspracticalassigment.exception.InvalidArgumentException;
 import com.example.clearsolutionspracticalassigment.exception.NotFoundException;
+import com.example.clearsolutionspracticalassigment.exception.PreconditionFailedException;
 import com.example.clearsolutionspracticalassigment.mapper.UserMapperImpl;
+import com.example.clearsolutionspracticalassigment.metrics.UserMetrics;
+import com.example.clearsolutionspracticalassigment.repository.UserPatchOutcome;
 import com.example.clearsolutionspracticalassigment.repository.UserRepository;
+import com.example.clearsolutionspracticalassigment.repository.projection.UserEmailOwner;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,12 +29,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -38,6 +57,18 @@ class UserServiceImplTest {
     @Spy
     private UserMapperImpl userMapper;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserMetrics userMetrics;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -104,6 +135,86 @@ class UserServiceImplTest {
         );
     }
 
+    @Test
+    public void createUsers_CreatesValidUsers_And_ReportsFailedOnes() {
+        CreateUserRequestPayload validPayload = CreateUserRequestPayload.builder()
+                .email("test@gmail.com")
+                .firstName("John")
+                .lastName("Dou")
+                .birthDate(LocalDate.of(2000, 7, 15))
+                .build();
+        CreateUserRequestPayload takenEmailPayload = CreateUserRequestPayload.builder()
+                .email("taken@gmail.com")
+                .birthDate(LocalDate.of(2000, 7, 15))
+                .build();
+        CreateUserRequestPayload repeatedEmailPayload = CreateUserRequestPayload.builder()
+                .email(validPayload.getEmail())
+                .birthDate(LocalDate.of(2000, 7, 15))
+                .build();
+        CreateUserRequestPayload tooYoungPayload = CreateUserRequestPayload.builder()
+                .email("young@gmail.com")
+                .birthDate(LocalDate.now())
+                .build();
+
+        when(userRepository.findAllEmailsByEmailIn(any()))
+                .thenReturn(List.of(takenEmailPayload.getEmail()));
+
+        List<BatchItemResultDTO> results = userService.createUsers(List.of(
+                validPayload, takenEmailPayload, repeatedEmailPayload, tooYoungPayload
+        ));
+
+        verify(userRepository, times(1)).findAllEmailsByEmailIn(any());
+        verify(userRepository, times(1)).saveAll(any());
+        verify(entityManager, times(1)).flush();
+        assertEquals(4, results.size());
+        assertEquals(HttpStatus.CREATED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getUuid());
+        assertEquals(HttpStatus.BAD_REQUEST, results.get(1).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, results.get(2).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, results.get(3).getStatus());
+        assertEquals(3, results.get(3).getIndex());
+    }
+
+    @Test
+    public void createUsers_StoresUsersUnderGivenIds() {
+        CreateUserRequestPayload payload = CreateUserRequestPayload.builder()
+                .email("test@gmail.com")
+                .birthDate(LocalDate.of(2000, 7, 15))
+                .build();
+        UUID promisedUserId = UUID.randomUUID();
+
+        when(userRepository.findAllEmailsByEmailIn(any()))
+                .thenReturn(List.of());
+
+        List<BatchItemResultDTO> results = userService.createUsers(List.of(payload), List.of(promisedUserId));
+
+        verify(userRepository, times(1)).saveAll(any());
+        assertEquals(promisedUserId, results.get(0).getUuid());
+        assertEquals(HttpStatus.CREATED, results.get(0).getStatus());
+    }
+
+    @Test
+    public void createUsers_TreatsEmailsDifferingInCaseAsTaken() {
+        CreateUserRequestPayload payload = CreateUserRequestPayload.builder()
+                .email("John.Dou@Gmail.com")
+                .birthDate(LocalDate.of(2000, 7, 15))
+                .build();
+        CreateUserRequestPayload sameEmailPayload = CreateUserRequestPayload.builder()
+                .email("john.dou@gmail.com")
+                .birthDate(LocalDate.of(2000, 7, 15))
+                .build();
+
+        when(userRepository.findAllEmailsByEmailIn(any()))
+                .thenReturn(List.of());
+
+        List<BatchItemResultDTO> results = userService.createUsers(List.of(payload, sameEmailPayload));
+
+        verify(userRepository, times(1))
+                .findAllEmailsByEmailIn(List.of("john.dou@gmail.com", "john.dou@gmail.com"));
+        assertEquals(HttpStatus.CREATED, results.get(0).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, results.get(1).getStatus());
+    }
+
     @Test
     public void updateUser_ValidatesBirthDate() {
         UUID userUuid = UUID.randomUUID();
@@ -113,7 +224,7 @@ class UserServiceImplTest {
 
         assertThrows(
                 InvalidArgumentException.class,
-                () -> userService.updateUser(userUuid, updatePayload)
+                () -> userService.updateUser(userUuid, updatePayload, null)
         );
     }
 
@@ -125,14 +236,12 @@ class UserServiceImplTest {
                 .birthDate(LocalDate.of(2000, 7, 15))
                 .build();
 
-        when(userRepository.findByEmail(any()))
-                .thenReturn(
-                        Optional.of(new User(UUID.randomUUID()))
-                );
+        when(userRepository.updateByUuid(any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
 
         assertThrows(
                 InvalidArgumentException.class,
-                () -> userService.updateUser(userUuid, updatePayload)
+                () -> userService.updateUser(userUuid, updatePayload, null)
         );
     }
 
@@ -143,17 +252,34 @@ class UserServiceImplTest {
                 .birthDate(LocalDate.of(2000, 7, 15))
                 .build();
 
-        when(userRepository.findByEmail(any()))
-                .thenReturn(Optional.empty());
-        when(userRepository.findByUuid(any()))
-                .thenReturn(Optional.empty());
+        when(userRepository.updateByUuid(any(), any(), any()))
+                .thenReturn(0);
 
         assertThrows(
                 NotFoundException.class,
-                () -> userService.updateUser(userUuid, updatePayload)
+                () -> userService.updateUser(userUuid, updatePayload, null)
         );
     }
 
+    @Test
+    public void updateUser_ThrowsPreconditionFailedException_WhenVersionChanged() {
+        UUID userUuid = UUID.randomUUID();
+        UpdateUserRequestPayload updatePayload = UpdateUserRequestPayload.builder()
+                .birthDate(LocalDate.of(2000, 7, 15))
+                .build();
+
+        when(userRepository.updateByUuid(any(), any(), any()))
+                .thenReturn(0);
+        when(userRepository.existsByUuid(userUuid))
+                .thenReturn(true);
+
+        assertThrows(
+                PreconditionFailedException.class,
+                () -> userService.updateUser(userUuid, updatePayload, 3L)
+        );
+        verify(userRepository, times(1)).updateByUuid(userUuid, updatePayload, 3L);
+    }
+
     @Test
     public void updateUser_UpdatesUser() {
         UUID userUuid = UUID.randomUUID();
@@ -165,25 +291,15 @@ class UserServiceImplTest {
                 .address("New address")
                 .phoneNumber("+380000000000")
                 .build();
-        User foundUser = new User();
 
-        when(userRepository.findByEmail(any()))
-                .thenReturn(Optional.empty());
-        when(userRepository.findByUuid(any()))
-                .thenReturn(Optional.of(foundUser));
+        when(userRepository.updateByUuid(any(), any(), any()))
+                .thenReturn(1);
 
-        userService.updateUser(userUuid, updatePayload);
+        userService.updateUser(userUuid, updatePayload, null);
 
         verify(userRepository, times(1))
-                .findByUuid(userUuid);
-        verify(userRepository, times(1))
-                .save(foundUser);
-        assertEquals(updatePayload.getEmail(), foundUser.getEmail());
-        assertEquals(updatePayload.getFirstName(), foundUser.getFirstName());
-        assertEquals(updatePayload.getLastName(), foundUser.getLastName());
-        assertEquals(updatePayload.getBirthDate(), foundUser.getBirthDate());
-        assertEquals(updatePayload.getAddress(), foundUser.getAddress());
-        assertEquals(updatePayload.getPhoneNumber(), foundUser.getPhoneNumber());
+                .updateByUuid(userUuid, updatePayload, null);
+        verifyNoMoreInteractions(userRepository);
     }
 
     @Test
@@ -195,7 +311,7 @@ class UserServiceImplTest {
 
         assertThrows(
                 InvalidArgumentException.class,
-                () -> userService.patchUser(userUuid, patchPayload)
+                () -> userService.patchUser(userUuid, patchPayload, null)
         );
     }
 
@@ -207,14 +323,12 @@ class UserServiceImplTest {
                 .birthDate(LocalDate.of(2000, 7, 15))
                 .build();
 
-        when(userRepository.findByEmail(any()))
-                .thenReturn(
-                        Optional.of(new User(UUID.randomUUID()))
-                );
+        when(userRepository.patchByUuid(any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
 
         assertThrows(
                 InvalidArgumentException.class,
-                () -> userService.patchUser(userUuid, patchPayload)
+                () -> userService.patchUser(userUuid, patchPayload, null)
         );
     }
 
@@ -225,12 +339,30 @@ class UserServiceImplTest {
                 .birthDate(LocalDate.of(2000, 7, 15))
                 .build();
 
-        when(userRepository.findByUuid(any()))
-                .thenReturn(Optional.empty());
+        when(userRepository.patchByUuid(any(), any(), any()))
+                .thenReturn(UserPatchOutcome.NOT_MATCHED);
+
+        assertThrows(
+                NotFoundException.class,
+                () -> userService.patchUser(userUuid, patchPayload, null)
+        );
+    }
+
+    @Test
+    public void patchUser_ThrowsNotFoundException_WhenConditionalPatchFindsNoUser() {
+        UUID userUuid = UUID.randomUUID();
+        PatchUserRequestPayload patchPayload = PatchUserRequestPayload.builder()
+                .lastName("new one")
+                .build();
+
+        when(userRepository.patchByUuid(any(), any(), any()))
+                .thenReturn(UserPatchOutcome.NOT_MATCHED);
+        when(userRepository.existsByUuid(userUuid))
+                .thenReturn(false);
 
         assertThrows(
                 NotFoundException.class,
-                () -> userService.patchUser(userUuid, patchPayload)
+                () -> userService.patchUser(userUuid, patchPayload, 3L)
         );
     }
 
@@ -241,31 +373,121 @@ class UserServiceImplTest {
                 .firstName(null)
                 .lastName("new one")
                 .build();
-        String initialFirstName = "John";
+
+        when(userRepository.patchByUuid(any(), any(), any()))
+                .thenReturn(UserPatchOutcome.PATCHED);
+
+        userService.patchUser(userUuid, patchPayload, null);
+
+        verify(userRepository, times(1))
+                .patchByUuid(userUuid, patchPayload, null);
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    public void patchUser_PublishesNothing_WhenUserAlreadyHasValues() {
+        UUID userUuid = UUID.randomUUID();
+        PatchUserRequestPayload patchPayload = PatchUserRequestPayload.builder()
+                .lastName("Dou")
+                .build();
+
+        when(userRepository.patchByUuid(any(), any(), any()))
+                .thenReturn(UserPatchOutcome.UNCHANGED);
+
+        userService.patchUser(userUuid, patchPayload, 3L);
+
+        verify(userRepository, never()).existsByUuid(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void patchUsers_PatchesFoundUsers_And_ReportsFailedOnes() {
         User foundUser = User.builder()
-                .firstName(initialFirstName)
-                .lastName("Some")
+                .uuid(UUID.randomUUID())
+                .firstName("John")
                 .build();
+        User anotherFoundUser = User.builder()
+                .uuid(UUID.randomUUID())
+                .build();
+        UUID missingUserUuid = UUID.randomUUID();
+        UserEmailOwner takenEmailOwner = mock(UserEmailOwner.class);
+
+        when(takenEmailOwner.getEmail()).thenReturn("taken@gmail.com");
+        when(takenEmailOwner.getUuid()).thenReturn(UUID.randomUUID());
+        when(userRepository.findAllByNaturalIdIn(any()))
+                .thenReturn(List.of(foundUser, anotherFoundUser));
+        when(userRepository.findAllEmailOwnersByEmailIn(any()))
+                .thenReturn(List.of(takenEmailOwner));
+
+        List<BatchItemResultDTO> results = userService.patchUsers(List.of(
+                new PatchUserBatchItemRequestPayload(
+                        foundUser.getUuid(),
+                        PatchUserRequestPayload.builder().lastName("new one").email("free@gmail.com").build()
+                ),
+                new PatchUserBatchItemRequestPayload(
+                        missingUserUuid,
+                        PatchUserRequestPayload.builder().lastName("new one").build()
+                ),
+                new PatchUserBatchItemRequestPayload(
+                        anotherFoundUser.getUuid(),
+                        PatchUserRequestPayload.builder().email("taken@gmail.com").build()
+                ),
+                new PatchUserBatchItemRequestPayload(
+                        anotherFoundUser.getUuid(),
+                        PatchUserRequestPayload.builder().email("free@gmail.com").build()
+                )
+        ));
+
+        verify(userRepository, times(1)).findAllByNaturalIdIn(any());
+        verify(userRepository, times(1)).findAllEmailOwnersByEmailIn(any());
+        verify(entityManager, times(1)).flush();
+        assertEquals(HttpStatus.NO_CONTENT, results.get(0).getStatus());
+        assertEquals(HttpStatus.NOT_FOUND, results.get(1).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, results.get(2).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, results.get(3).getStatus());
+        assertEquals("John", foundUser.getFirstName());
+        assertEquals("new one", foundUser.getLastName());
+        assertNull(anotherFoundUser.getEmail());
+    }
 
-        when(userRepository.findByUuid(any()))
-                .thenReturn(Optional.of(foundUser));
+    @Test
+    public void patchUsers_PublishesOnlyChangedUsers() {
+        User changedUser = User.builder()
+                .uuid(UUID.randomUUID())
+                .lastName("Dou")
+                .build();
+        User unchangedUser = User.builder()
+                .uuid(UUID.randomUUID())
+                .lastName("Dou")
+                .build();
 
-        userService.patchUser(userUuid, patchPayload);
+        when(userRepository.findAllByNaturalIdIn(any()))
+                .thenReturn(List.of(changedUser, unchangedUser));
+
+        List<BatchItemResultDTO> results = userService.patchUsers(List.of(
+                new PatchUserBatchItemRequestPayload(
+                        changedUser.getUuid(),
+                        PatchUserRequestPayload.builder().lastName("new one").build()
+                ),
+                new PatchUserBatchItemRequestPayload(
+                        unchangedUser.getUuid(),
+                        PatchUserRequestPayload.builder().lastName("Dou").build()
+                )
+        ));
 
-        verify(userRepository, times(1))
-                .findByUuid(userUuid);
-        verify(userRepository, times(1))
-                .save(foundUser);
-        assertEquals(initialFirstName, foundUser.getFirstName());
-        assertEquals(patchPayload.getLastName(), foundUser.getLastName());
+        assertEquals(HttpStatus.NO_CONTENT, results.get(0).getStatus());
+        assertEquals(HttpStatus.NO_CONTENT, results.get(1).getStatus());
+        verify(eventPublisher, times(1))
+                .publishEvent(argThat((UserChangedEvent event) -> event.getType() == UserChangeType.PATCHED
+                        && event.getUserIds().equals(List.of(changedUser.getUuid()))));
     }
 
     @Test
     public void deleteUser_ThrowsNotFoundException() {
         UUID userUuid = UUID.randomUUID();
 
-        when(userRepository.existsByUuid(any()))
-                .thenReturn(false);
+        when(userRepository.deleteByUuid(any()))
+                .thenReturn(0);
 
         assertThrows(
                 NotFoundException.class,
@@ -277,44 +499,136 @@ class UserServiceImplTest {
     public void deleteUser_DeletesUser() {
         UUID userUuid = UUID.randomUUID();
 
-        when(userRepository.existsByUuid(any()))
-                .thenReturn(true);
+        when(userRepository.deleteByUuid(any()))
+                .thenReturn(1);
 
         userService.deleteUser(userUuid);
 
         verify(userRepository, times(1))
                 .deleteByUuid(userUuid);
+        verifyNoMoreInteractions(userRepository);
+        verify(eventPublisher, times(1))
+                .publishEvent(argThat((UserChangedEvent event) -> event.getType() == UserChangeType.DELETED
+                        && event.getUserIds().equals(List.of(userUuid))));
+    }
+
+    @Test
+    public void deleteUsers_ReturnsDeletedCount() {
+        List<UUID> userUuids = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        when(userRepository.deleteAllByUuidIn(any()))
+                .thenReturn(List.of(userUuids.get(0)));
+
+        BatchDeleteResultDTO deletionResult = userService.deleteUsers(userUuids);
+
+        verify(userRepository, times(1))
+                .deleteAllByUuidIn(userUuids);
+        assertEquals(1, deletionResult.getDeletedCount());
+    }
+
+    @Test
+    public void deleteUsers_PublishesOnlyDeletedUsers() {
+        UUID existingUuid = UUID.randomUUID();
+        UUID unknownUuid = UUID.randomUUID();
+        UUID otherExistingUuid = UUID.randomUUID();
+
+        when(userRepository.deleteAllByUuidIn(any()))
+                .thenReturn(List.of(existingUuid, otherExistingUuid));
+
+        BatchDeleteResultDTO deletionResult = userService.deleteUsers(
+                List.of(existingUuid, unknownUuid, otherExistingUuid)
+        );
+
+        assertEquals(2, deletionResult.getDeletedCount());
+        // the outbox writer and the caches only learn about the users that went away
+        verify(eventPublisher, times(1))
+                .publishEvent(argThat((UserChangedEvent event) -> event.getType() == UserChangeType.DELETED
+                        && event.getUserIds().equals(List.of(existingUuid, otherExistingUuid))));
+    }
+
+    @Test
+    public void deleteAllUsersByBirthDateBetween_DeletesInChunks_UntilRangeIsEmpty() {
+        LocalDate birthDateFrom = LocalDate.now().minusYears(40);
+        LocalDate birthDateTo = LocalDate.now().minusYears(20);
+
+        when(userRepository.deleteChunkByBirthDateBetween(any(), any(), anyInt()))
+                .thenAnswer(invocation -> invocation.getArgument(2))
+                .thenReturn(5);
+
+        BatchDeleteResultDTO deletionResult = userService.deleteAllUsersByBirthDateBetween(
+                birthDateFrom,
+                birthDateTo
+        );
+
+        verify(userRepository, times(2))
+                .deleteChunkByBirthDateBetween(eq(birthDateFrom), eq(birthDateTo), anyInt());
+        assertTrue(deletionResult.getDeletedCount() > 5);
+        verify(eventPublisher, times(1))
+                .publishEvent(argThat((UserChangedEvent event) -> event.affectsUnknownUsers()));
+    }
+
+    @Test
+    public void deleteAllUsersByBirthDateBetween_ValidatesRange() {
+        LocalDate birthDateFrom = LocalDate.now();
+        LocalDate birthDateTo = LocalDate.now().minusYears(2);
+
+        assertThrows(
+                InvalidArgumentException.class,
+                () -> userService.deleteAllUsersByBirthDateBetween(
+                        birthDateFrom,
+                        birthDateTo
+                )
+        );
     }
 
     @Test
     public void getUserById_ThrowsNotFoundException() {
         UUID userUuid = UUID.randomUUID();
 
-        when(userRepository.findByUuid(any()))
+        loadThroughUserCache();
+        when(userRepository.findUserDTOByUuid(any()))
                 .thenReturn(Optional.empty());
 
-        assertThrows(
+        NotFoundException exception = assertThrows(
                 NotFoundException.class,
                 () -> userService.getUserById(userUuid)
         );
+        assertEquals(0, exception.getStackTrace().length);
     }
 
     @Test
     public void getUserById_ReturnsUserDTO() {
         UUID userUuid = UUID.randomUUID();
-        User user = User.builder()
+        UserDTO userDTO = UserDTO.builder()
                 .uuid(userUuid)
                 .build();
 
-        when(userRepository.findByUuid(any()))
-                .thenReturn(Optional.of(user));
+        loadThroughUserCache();
+        when(userRepository.findUserDTOByUuid(any()))
+                .thenReturn(Optional.of(userDTO));
 
         UserDTO fetchedUserDTO = userService.getUserById(userUuid);
 
         verify(userRepository, times(1))
-                .findByUuid(userUuid);
-        assertNotNull(fetchedUserDTO);
-        assertEquals(user.getUuid(), fetchedUserDTO.getUuid());
+                .findUserDTOByUuid(userUuid);
+        verifyNoInteractions(userMapper);
+        assertSame(userDTO, fetchedUserDTO);
+    }
+
+    @Test
+    public void getUserById_ReturnsCachedUserDTO_WithoutQuerying() {
+        UUID userUuid = UUID.randomUUID();
+        UserDTO cachedUserDTO = UserDTO.builder()
+                .uuid(userUuid)
+                .build();
+
+        when(userCache.get(eq(userUuid), any()))
+                .thenReturn(Optional.of(cachedUserDTO));
+
+        UserDTO fetchedUserDTO = userService.getUserById(userUuid);
+
+        verifyNoInteractions(userRepository);
+        assertSame(cachedUserDTO, fetchedUserDTO);
     }
 
     @Test
@@ -326,7 +640,9 @@ class UserServiceImplTest {
                 InvalidArgumentException.class,
                 () -> userService.findAllUsersByBirthDateBetween(
                     birthDateFrom,
-                    birthDateTo
+                    birthDateTo,
+                    null,
+                    10
                 )
         );
     }
@@ -336,18 +652,123 @@ class UserServiceImplTest {
         LocalDate birthDateFrom = LocalDate.now().minusYears(2);
         LocalDate birthDateTo = LocalDate.now();
 
-        when(userRepository.findAllByBirthDateBetween(any(), any()))
+        when(userRepository.findAllByBirthDateBetween(any(), any(), any()))
                 .thenReturn(List.of(
-                        new User(), new User()
+                        new UserDTO(), new UserDTO()
                 ));
 
-        List<UserDTO> fetchedUserDTOs = userService.findAllUsersByBirthDateBetween(
+        UserPageDTO fetchedPage = userService.findAllUsersByBirthDateBetween(
                         birthDateFrom,
-                        birthDateTo
+                        birthDateTo,
+                        null,
+                        10
                 );
 
         verify(userRepository, times(1))
-                .findAllByBirthDateBetween(birthDateFrom, birthDateTo);
-        assertEquals(2, fetchedUserDTOs.size());
+                .findAllByBirthDateBetween(
+                        birthDateFrom, birthDateTo, PageRequest.ofSize(11)
+                );
+        assertEquals(2, fetchedPage.getUsers().size());
+        assertNull(fetchedPage.getNextCursor());
+        verify(userMetrics, times(1)).recordPageSize(2);
+    }
+
+    @Test
+    public void findAllUsersByBirthDateBetween_ReturnsCursorOfLastUser_WhenMoreUsersLeft() {
+        LocalDate birthDateFrom = LocalDate.now().minusYears(2);
+        LocalDate birthDateTo = LocalDate.now();
+        UserDTO lastPageUser = UserDTO.builder()
+                .uuid(UUID.randomUUID())
+                .birthDate(birthDateFrom.plusDays(1))
+                .build();
+
+        when(userRepository.findAllByBirthDateBetween(any(), any(), any()))
+                .thenReturn(List.of(
+                        new UserDTO(), lastPageUser, new UserDTO()
+                ));
+
+        UserPageDTO fetchedPage = userService.findAllUsersByBirthDateBetween(
+                birthDateFrom,
+                birthDateTo,
+                null,
+                2
+        );
+
+        assertEquals(2, fetchedPage.getUsers().size());
+        assertNotNull(fetchedPage.getNextCursor());
+
+        when(userRepository.findAllByBirthDateBetweenAfterCursor(any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        userService.findAllUsersByBirthDateBetween(
+                birthDateFrom,
+                birthDateTo,
+                fetchedPage.getNextCursor(),
+                2
+        );
+
+        verify(userRepository, times(1))
+                .findAllByBirthDateBetweenAfterCursor(
+                        lastPageUser.getBirthDate(), lastPageUser.getUuid(), birthDateTo, PageRequest.ofSize(3)
+                );
+    }
+
+    @Test
+    public void findAllUsersByBirthDateBetween_ValidatesCursor() {
+        LocalDate birthDateFrom = LocalDate.now().minusYears(2);
+        LocalDate birthDateTo = LocalDate.now();
+
+        assertThrows(
+                InvalidArgumentException.class,
+                () -> userService.findAllUsersByBirthDateBetween(
+                        birthDateFrom,
+                        birthDateTo,
+                        "invalid_cursor",
+                        10
+                )
+        );
+    }
+
+    @Test
+    public void streamAllUsersByBirthDateBetween_ValidatesRange() {
+        LocalDate birthDateFrom = LocalDate.now();
+        LocalDate birthDateTo = LocalDate.now().minusYears(2);
+
+        assertThrows(
+                InvalidArgumentException.class,
+                () -> userService.streamAllUsersByBirthDateBetween(
+                        birthDateFrom,
+                        birthDateTo,
+                        user -> {}
+                )
+        );
+    }
+
+    @Test
+    public void streamAllUsersByBirthDateBetween_PassesEveryUserToConsumer() {
+        LocalDate birthDateFrom = LocalDate.now().minusYears(2);
+        LocalDate birthDateTo = LocalDate.now();
+        UserDTO firstUser = UserDTO.builder().uuid(UUID.randomUUID()).build();
+        UserDTO secondUser = UserDTO.builder().uuid(UUID.randomUUID()).build();
+        List<UserDTO> consumedUsers = new ArrayList<>();
+
+        when(userRepository.streamAllByBirthDateBetween(any(), any()))
+                .thenReturn(Stream.of(firstUser, secondUser));
+
+        userService.streamAllUsersByBirthDateBetween(
+                birthDateFrom,
+                birthDateTo,
+                consumedUsers::add
+        );
+
+        assertEquals(List.of(firstUser, secondUser), consumedUsers);
+        verify(userMetrics, times(1)).recordStreamedUsers(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadThroughUserCache() {
+        when(userCache.get(any(), any()))
+                .thenAnswer(invocation -> ((Function<UUID, Optional<UserDTO>>) invocation.getArgument(1))
+                        .apply(invocation.getArgument(0)));
     }
-}
\ No newline at end of file
+}
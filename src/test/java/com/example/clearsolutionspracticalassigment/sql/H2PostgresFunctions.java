@@ -0,0 +1,11 @@
+package com.example.clearsolutionspracticalassigment.sql;
+
+// postgres functions the application calls, declared as H2 aliases in sql/postgres-only-schema.sql
+public final class H2PostgresFunctions {
+
+    private H2PostgresFunctions() {
+    }
+
+    public static void pgNotify(String channel, String payload) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.clearsolutionspracticalassigment.sql;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/*
+Imported into a test context, it wraps the DataSource and sees every statement executed through it,
+Hibernate's as well as those of JdbcTemplate. A JDBC batch is executed once,
+so the count is the number of round trips rather than of rows.
+Statements are kept per thread, the code under test must run on the test thread
+*/
+public class SqlStatementCounter implements BeanPostProcessor {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+
+        // keeps every interface of the original, e.g. the shutdown of an embedded database
+        return proxy(ClassUtils.getAllInterfaces(bean), (target, method, arguments) -> {
+            Object result = invoke(bean, method, arguments);
+            return method.getName().equals("getConnection") ? countingConnection((Connection) result) : result;
+        });
+    }
+
+    public static void assertStatementCount(
+            int expectedCount,
+            Runnable action
+    ) {
+        List<String> statements = recordStatements(action);
+        if (statements.size() != expectedCount) {
+            fail(budgetMessage("Expected exactly " + expectedCount, statements));
+        }
+    }
+
+    public static void assertMaxStatementCount(
+            int maxCount,
+            Runnable action
+    ) {
+        List<String> statements = recordStatements(action);
+        assertTrue(statements.size() <= maxCount, () -> budgetMessage("Expected at most " + maxCount, statements));
+    }
+
+    public static List<String> recordStatements(Runnable action) {
+        STATEMENTS.get().clear();
+        try {
+            action.run();
+            return List.copyOf(STATEMENTS.get());
+        } finally {
+            STATEMENTS.remove();
+        }
+    }
+
+    private static Connection countingConnection(Connection connection) {
+        return proxy(new Class<?>[] {Connection.class}, (target, method, arguments) -> {
+            Object result = invoke(connection, method, arguments);
+            if (result instanceof Statement statement) {
+                // prepared statements carry their sql from here, plain ones get it on execution
+                String preparedSql = arguments != null && arguments.length > 0 && arguments[0] instanceof String sql
+                        ? sql
+                        : null;
+                return countingStatement(statement, preparedSql);
+            }
+
+            return result;
+        });
+    }
+
+    private static Statement countingStatement(Statement statement, String preparedSql) {
+        return proxy(ClassUtils.getAllInterfaces(statement), (target, method, arguments) -> {
+            if (method.getName().startsWith("execute")) {
+                String executedSql = arguments != null && arguments.length > 0 && arguments[0] instanceof String sql
+                        ? sql
+                        : preparedSql;
+                STATEMENTS.get().add(executedSql);
+            }
+
+            return invoke(statement, method, arguments);
+        });
+    }
+
+    // proxies equal only themselves, transaction resources are bound to the proxied DataSource
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?>[] interfaces, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(
+                SqlStatementCounter.class.getClassLoader(),
+                interfaces,
+                (proxy, method, arguments) -> switch (method.getName()) {
+                    case "equals" -> proxy == arguments[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> handler.invoke(proxy, method, arguments);
+                }
+        );
+    }
+
+    private static Object invoke(Object target, Method method, Object[] arguments) throws Throwable {
+        try {
+            return method.invoke(target, arguments);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String budgetMessage(
+            String expectation,
+            List<String> statements
+    ) {
+        return expectation + " statements, but " + statements.size() + " were sent:\n"
+                + String.join("\n", statements);
+    }
+}
@@ -0,0 +1,11 @@
+-- what the postgres migrations add beyond the mapping, so writes run their listeners on H2 too
+create table if not exists user_outbox
+(
+    id          bigint generated always as identity primary key,
+    user_uuid   uuid                     not null,
+    change_type varchar(16)              not null,
+    occurred_at timestamp with time zone not null default current_timestamp
+);
+
+-- nobody listens here, the statement only has to go through
+create alias if not exists pg_notify for "com.example.clearsolutionspracticalassigment.sql.H2PostgresFunctions.pgNotify";